@@ -0,0 +1,63 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// BatchKernel on the Vector API: each slot's run of lanes is processed a full vector of lanes
+// at a time, with the same int arithmetic as BatchKernel.Scalar, and the remainder of each run
+// falls back to it. Optional build (see BatchKernel); BatchWorld finds it by name at startup.
+public class VectorBatchKernel implements BatchKernel {
+    private static final VectorSpecies<Integer> S = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vetor " + S.length() + "x int";
+    }
+
+    @Override
+    public void scroll(int[] xs, int[] live, int[] scored, int[] moving, int[] slow, int slots, int lanes) {
+        int bound = S.loopBound(lanes);
+        for (int s = 0; s < slots; s++) {
+            int base = s * lanes;
+            for (int l = 0; l < bound; l += S.length()) {
+                int i = base + l;
+                IntVector alive = IntVector.fromArray(S, live, i);
+                IntVector x = IntVector.fromArray(S, xs, i).sub(IntVector.fromArray(S, moving, l).mul(alive));
+                x.intoArray(xs, i);
+                IntVector scores = x.add(Obstacle.WIDTH - BatchWorld.PLANE_X).lanewise(VectorOperators.LSHR, 31)
+                        .and(IntVector.fromArray(S, scored, i).lanewise(VectorOperators.XOR, 1));
+                IntVector leaves = x.add(Obstacle.WIDTH).lanewise(VectorOperators.LSHR, 31);
+                IntVector.fromArray(S, slow, l).or(alive.and(scores.or(leaves))).intoArray(slow, l);
+            }
+        }
+        if (bound < lanes) BatchKernel.Scalar.scroll(xs, live, scored, moving, slow, slots, lanes, bound);
+    }
+
+    @Override
+    public void hits(int[] xs, int[] gapY, int[] gapSize, int[] live, int[] hitY, int[] slow, int slots, int lanes) {
+        int bound = S.loopBound(lanes);
+        IntVector zero = IntVector.zero(S);
+        for (int s = 0; s < slots; s++) {
+            int base = s * lanes;
+            for (int l = 0; l < bound; l += S.length()) {
+                int i = base + l;
+                IntVector x = IntVector.fromArray(S, xs, i);
+                IntVector py = IntVector.fromArray(S, hitY, l);
+                IntVector pyBottom = py.add(BatchWorld.HIT_H);
+                IntVector top = IntVector.fromArray(S, gapY, i);
+                IntVector bottom = top.add(IntVector.fromArray(S, gapSize, i));
+
+                // HIT_X + HIT_W > x - 1 && HIT_X < x + WIDTH + 1
+                VectorMask<Integer> overlapX = x.lt(BatchWorld.HIT_X + BatchWorld.HIT_W + 1)
+                        .and(x.compare(VectorOperators.GT, BatchWorld.HIT_X - Obstacle.WIDTH - 1));
+                VectorMask<Integer> hitTop = top.compare(VectorOperators.GT, 0).and(py.lt(top))
+                        .and(pyBottom.compare(VectorOperators.GT, 0));
+                VectorMask<Integer> hitBottom = bottom.lt(GameWorld.HEIGHT)
+                        .and(pyBottom.compare(VectorOperators.GT, bottom)).and(py.lt(GameWorld.HEIGHT));
+                IntVector touch = zero.blend(1, overlapX.and(hitTop.or(hitBottom)));
+                IntVector.fromArray(S, slow, l).or(IntVector.fromArray(S, live, i).and(touch)).intoArray(slow, l);
+            }
+        }
+        if (bound < lanes) BatchKernel.Scalar.hits(xs, gapY, gapSize, live, hitY, slow, slots, lanes, bound);
+    }
+}
@@ -0,0 +1,127 @@
+// Lookahead bot for keyboard mode. Each tick it searches idle/up/down inputs, each held for
+// a few ticks, through a forward model of Plane.update() against the obstacles already on
+// screen. Inputs are tried in order of preference (towards the next gap), the first one
+// that survives the whole horizon wins, crashing branches are cut immediately and dead
+// (depth, y, velocity) states are memoized, which keeps a decision to microseconds even
+// at top speed.
+public class Autopilot implements Policy {
+    private static final int REPEAT = 4;
+    private static final int DEPTH = 8;
+    private static final int HORIZON = REPEAT * DEPTH;
+    private static final int DEADBAND = 8;
+
+    // Collision geometry mirrored from Plane.getBounds() and Obstacle bounds
+    private static final int PLANE_H = 25;
+    private static final int HIT_X = 80 + 6;
+    private static final int HIT_W = 50 - 12;
+    private static final int HIT_DY = 4;
+    private static final int HIT_H = 25 - 8;
+    private static final int GROUND_TOP = GameWorld.HEIGHT - GameWorld.GROUND_HEIGHT;
+
+    private static final int MEMO_BITS = 14;
+    private static final int MEMO_MASK = (1 << MEMO_BITS) - 1;
+
+    private final int[] obsX = new int[64];
+    private final int[] obsGapY = new int[64];
+    private final int[] obsGapSize = new int[64];
+    private int obsCount;
+    private int obsWidth;
+    private int speed;
+
+    // Dead states of the current decision, tagged with its stamp
+    private final long[] deadKeys = new long[1 << MEMO_BITS];
+    private final int[] deadStamps = new int[1 << MEMO_BITS];
+    private int stamp;
+
+    private final int[][] orders = new int[DEPTH + 1][3];
+
+    @Override
+    public int decide(FlightView world) {
+        // Only obstacles the plane has not fully passed can matter
+        obsWidth = world.getObstacleWidth();
+        obsCount = 0;
+        for (int i = 0; i < world.getObstacleCount() && obsCount < obsX.length; i++) {
+            int x = world.getObstacleX(i);
+            if (x - 1 + obsWidth + 2 <= HIT_X) continue;
+            obsX[obsCount] = x;
+            obsGapY[obsCount] = world.getObstacleGapY(i);
+            obsGapSize[obsCount] = world.getObstacleGapSize(i);
+            obsCount++;
+        }
+        speed = world.getObstacleSpeed();
+        stamp++;
+
+        double y = world.getPlaneY();
+        double v = world.getPlaneVelocity();
+        int[] order = order(0, 0, y, v);
+        for (int action : order) {
+            if (survives(action, 0, y, v)) return action;
+        }
+        return order[0]; // nothing survives; keep heading for the gap
+    }
+
+    // Holds action for REPEAT ticks from tick, then keeps searching until the horizon
+    private boolean survives(int action, int tick, double y, double v) {
+        boolean up = (action & GameWorld.INPUT_UP) != 0;
+        boolean down = (action & GameWorld.INPUT_DOWN) != 0;
+        for (int i = 0; i < REPEAT; i++) {
+            v = Plane.keyboardVelocity(v, up, down);
+            y += v;
+            tick++;
+            if (crashes(tick, y)) return false;
+        }
+        if (tick >= HORIZON) return true;
+
+        int depth = tick / REPEAT;
+        long key = ((long) depth << 48) ^ (Math.round(y * 2) << 20) ^ (Math.round(v * 8) & 0xFFFFF);
+        int slot = (int) (key ^ (key >>> 29)) & MEMO_MASK;
+        if (deadStamps[slot] == stamp && deadKeys[slot] == key) return false;
+
+        for (int next : order(depth, tick, y, v)) {
+            if (survives(next, tick, y, v)) return true;
+        }
+        deadStamps[slot] = stamp;
+        deadKeys[slot] = key;
+        return false;
+    }
+
+    // Inputs ranked by how well they steer towards the centre of the next gap
+    private int[] order(int depth, int tick, double y, double v) {
+        double target = GROUND_TOP / 2.0;
+        for (int i = 0; i < obsCount; i++) {
+            int right = obsX[i] - speed * tick - 1 + obsWidth + 2;
+            if (right > HIT_X) {
+                target = obsGapY[i] + obsGapSize[i] / 2.0;
+                break;
+            }
+        }
+        double predicted = y + PLANE_H / 2.0 + v * 3;
+        int[] order = orders[depth];
+        if (predicted > target + DEADBAND) {
+            order[0] = GameWorld.INPUT_UP;
+            order[1] = 0;
+            order[2] = GameWorld.INPUT_DOWN;
+        } else if (predicted < target - DEADBAND) {
+            order[0] = GameWorld.INPUT_DOWN;
+            order[1] = 0;
+            order[2] = GameWorld.INPUT_UP;
+        } else {
+            order[0] = 0;
+            order[1] = predicted > target ? GameWorld.INPUT_UP : GameWorld.INPUT_DOWN;
+            order[2] = predicted > target ? GameWorld.INPUT_DOWN : GameWorld.INPUT_UP;
+        }
+        return order;
+    }
+
+    private boolean crashes(int tick, double y) {
+        if (y + PLANE_H > GROUND_TOP || y < 0) return true;
+        int py = (int) y + HIT_DY;
+        for (int i = 0; i < obsCount; i++) {
+            int left = obsX[i] - speed * tick - 1;
+            int right = left + obsWidth + 2;
+            if (left >= HIT_X + HIT_W || right <= HIT_X) continue;
+            if (py < obsGapY[i] || py + HIT_H > obsGapY[i] + obsGapSize[i]) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Plays many headless keyboard games with the Autopilot and reports decision throughput and,
+// for every speed level, how many runs that reached it also survived it.
+//
+// Uso: java AutopilotBenchmark [partidas] [ticks maximos]
+public class AutopilotBenchmark {
+    private static final int MAX_SPEED = 15;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int maxTicks = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        AtomicLongArray reached = new AtomicLongArray(MAX_SPEED + 1);
+        AtomicLongArray died = new AtomicLongArray(MAX_SPEED + 1);
+        AtomicLong decisions = new AtomicLong();
+        AtomicLong decideNanos = new AtomicLong();
+        AtomicLong worstNanos = new AtomicLong();
+        AtomicLong totalScore = new AtomicLong();
+
+        long start = System.nanoTime();
+        IntStream.range(0, games).parallel().forEach(game -> {
+            GameWorld world = new GameWorld(game);
+            world.start(game, false);
+            Autopilot pilot = new Autopilot();
+            int lastSpeed = -1;
+            long nanos = 0;
+            long worst = 0;
+            int tick = 0;
+            for (; tick < maxTicks; tick++) {
+                int speed = world.getObstacleSpeed();
+                if (speed != lastSpeed) {
+                    reached.incrementAndGet(speed);
+                    lastSpeed = speed;
+                }
+                long t0 = System.nanoTime();
+                int input = pilot.decide(world);
+                long dt = System.nanoTime() - t0;
+                nanos += dt;
+                worst = Math.max(worst, dt);
+                if (world.update(input)) {
+                    died.incrementAndGet(world.getObstacleSpeed());
+                    tick++;
+                    break;
+                }
+            }
+            decisions.addAndGet(tick);
+            decideNanos.addAndGet(nanos);
+            worstNanos.accumulateAndGet(worst, Math::max);
+            totalScore.addAndGet(world.getScore());
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d partidas em %.2fs, pontuacao media %.1f%n",
+                games, seconds, totalScore.get() / (double) games);
+        System.out.printf("%.0f decisoes/s por nucleo (media %.1f us, pior %.1f us; tick = 16000 us)%n",
+                decisions.get() / (decideNanos.get() / 1e9), decideNanos.get() / 1e3 / decisions.get(),
+                worstNanos.get() / 1e3);
+        System.out.println("Velocidade  Chegaram  Sobreviveram");
+        for (int s = 0; s <= MAX_SPEED; s++) {
+            long r = reached.get(s);
+            if (r == 0) continue;
+            System.out.printf("%10d  %8d  %11.1f%%%n", s, r, 100.0 * (r - died.get(s)) / r);
+        }
+    }
+}
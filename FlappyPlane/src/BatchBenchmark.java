@@ -0,0 +1,202 @@
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+// Plays the same games twice, one GameWorld per game on all cores and then in BatchWorld
+// lanes (one batch per core, lanes refilled as games end), checks that every game ends
+// bit-for-bit the same both ways and compares throughput. Both ways the bot is a Policy with
+// a fresh instance per game, fed the GameWorld or its BatchWorld lane. By default it is a
+// cheap gap follower with some seeded wrong keys, so the simulation, not the bot, is what
+// gets measured; "autopilot" flies the real Autopilot instead.
+//
+// Uso: java BatchBenchmark [partidas] [pistas por thread] [ticks maximos] [perfil] [simples | autopilot]
+public class BatchBenchmark {
+    private static final int HIT_X = 80 + 6;
+    private static final int[] KEYS = {0, GameWorld.INPUT_UP, GameWorld.INPUT_DOWN};
+    private static final int MAX_REPORTED = 10;
+
+    // How one game ended
+    private static class Results {
+        final int[] score;
+        final int[] ticks;
+        final int[] cause;
+        final long[] y;
+        final long[] velocity;
+        final long[] rotation;
+
+        Results(int games) {
+            score = new int[games];
+            ticks = new int[games];
+            cause = new int[games];
+            y = new long[games];
+            velocity = new long[games];
+            rotation = new long[games];
+        }
+
+        void set(int game, int score, int ticks, int cause, double y, double velocity, double rotation) {
+            this.score[game] = score;
+            this.ticks[game] = ticks;
+            this.cause[game] = cause;
+            this.y[game] = Double.doubleToRawLongBits(y);
+            this.velocity[game] = Double.doubleToRawLongBits(velocity);
+            this.rotation[game] = Double.doubleToRawLongBits(rotation);
+        }
+
+        String describe(int game) {
+            return String.format("pontos %d, ticks %d, causa %d, y %s", score[game], ticks[game], cause[game],
+                    Double.longBitsToDouble(y[game]));
+        }
+
+        boolean same(Results o, int game) {
+            return score[game] == o.score[game] && ticks[game] == o.ticks[game] && cause[game] == o.cause[game]
+                    && y[game] == o.y[game] && velocity[game] == o.velocity[game] && rotation[game] == o.rotation[game];
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int lanes = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        DifficultyProfile profile = args.length > 3
+                ? DifficultyProfile.load(Paths.get(DifficultyProfile.DIR), args[3]) : DifficultyProfile.DEFAULT;
+        boolean autopilot = args.length > 4 && args[4].equals("autopilot");
+        LongFunction<Policy> bot = autopilot ? seed -> new Autopilot() : GapFollower::new;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        // The first round warms up the JIT for both paths; the second is the one reported
+        Results single = null, batched = null;
+        double singleSeconds = 0, batchedSeconds = 0;
+        for (int round = 0; round < 2; round++) {
+            int n = round == 0 ? Math.min(games, 2000) : games;
+            single = new Results(n);
+            batched = new Results(n);
+            long start = System.nanoTime();
+            playSingle(profile, bot, single, maxTicks);
+            singleSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            playBatched(profile, bot, batched, lanes, maxTicks, threads);
+            batchedSeconds = (System.nanoTime() - start) / 1e9;
+        }
+
+        long ticks = 0, points = 0;
+        int mismatched = 0;
+        for (int g = 0; g < games; g++) {
+            ticks += single.ticks[g];
+            points += single.score[g];
+            if (single.same(batched, g)) continue;
+            if (mismatched++ < MAX_REPORTED) {
+                System.out.println("DIVERGENTE semente " + g + ": um a um " + single.describe(g)
+                        + " / em lote " + batched.describe(g));
+            }
+        }
+
+        System.out.printf("%d partidas (%s, %s), %.1f pontos e %.0f ticks em media, %d threads, %d pistas por thread%n",
+                games, profile.getName(), autopilot ? "autopilot" : "bot simples", points / (double) games,
+                ticks / (double) games, threads, lanes);
+        System.out.printf("Um GameWorld por partida: %.2fs, %.1f M ticks/s%n", singleSeconds, ticks / singleSeconds / 1e6);
+        System.out.printf("BatchWorld (%s): %.2fs, %.1f M ticks/s (%.2fx)%n", BatchWorld.getKernelName(), batchedSeconds,
+                ticks / batchedSeconds / 1e6, singleSeconds / batchedSeconds);
+        if (mismatched > 0) {
+            System.out.println(mismatched + " partidas divergentes");
+            System.exit(2);
+        }
+        System.out.println("Todas as partidas terminaram identicas nos dois modos");
+    }
+
+    private static void playSingle(DifficultyProfile profile, LongFunction<Policy> bot, Results out, int maxTicks) {
+        IntStream.range(0, out.score.length).parallel().forEach(game -> {
+            GameWorld world = new GameWorld(game);
+            world.setProfile(profile);
+            world.start(game, false);
+            Policy policy = bot.apply(game);
+            int tick = 0;
+            while (tick < maxTicks) {
+                int input = policy.decide(world);
+                tick++;
+                if (world.update(input)) break;
+            }
+            Plane plane = world.getPlane();
+            out.set(game, world.getScore(), tick, world.getCrashCause(), plane.getY(), plane.getVelocity(), plane.getRotation());
+        });
+    }
+
+    private static void playBatched(DifficultyProfile profile, LongFunction<Policy> bot, Results out, int lanes,
+                                    int maxTicks, int threads)
+            throws InterruptedException {
+        int games = out.score.length;
+        AtomicInteger next = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                BatchWorld world = new BatchWorld(profile, lanes);
+                int[] game = new int[lanes];
+                Policy[] policy = new Policy[lanes];
+                int[] input = new int[lanes];
+                int active = 0;
+                for (int l = 0; l < lanes; l++) {
+                    game[l] = next.getAndIncrement();
+                    if (game[l] < games) {
+                        world.start(l, game[l]);
+                        policy[l] = bot.apply(game[l]);
+                        active++;
+                    }
+                }
+                while (active > 0) {
+                    for (int l = 0; l < lanes; l++) {
+                        if (world.isRunning(l)) input[l] = policy[l].decide(world.lane(l));
+                    }
+                    world.step(input);
+
+                    // Record finished lanes and refill them with the next seeds
+                    for (int l = 0; l < lanes; l++) {
+                        if (game[l] >= games) continue;
+                        boolean running = world.isRunning(l);
+                        if (running && world.getTicks(l) < maxTicks) continue;
+                        out.set(game[l], world.getScore(l), world.getTicks(l), world.getCrashCause(l),
+                                world.getY(l), world.getVelocity(l), world.getRotation(l));
+                        if (running) world.stop(l);
+                        game[l] = next.getAndIncrement();
+                        if (game[l] < games) {
+                            world.start(l, game[l]);
+                            policy[l] = bot.apply(game[l]);
+                        } else {
+                            active--;
+                        }
+                    }
+                }
+            }, "batch-" + t);
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+    }
+
+    // Heads for the middle of the next gap, but on a seeded share of the ticks (from one in
+    // two to one in sixteen, depending on the seed) presses the wrong key
+    private static final class GapFollower implements Policy {
+        private final long seed;
+        private int tick;
+
+        GapFollower(long seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public int decide(FlightView view) {
+            int gapMid = GameWorld.HEIGHT / 2;
+            for (int k = 0; k < view.getObstacleCount(); k++) {
+                if (view.getObstacleX(k) + Obstacle.WIDTH >= HIT_X) {
+                    gapMid = view.getObstacleGapY(k) + view.getObstacleGapSize(k) / 2;
+                    break;
+                }
+            }
+            long h = (seed * 0x9E3779B97F4A7C15L + tick++) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+            boolean wrong = (h & ((2L << (seed & 3)) - 1)) == 0;
+            double mid = view.getPlaneY() + 12.5;
+            if (mid > gapMid + 12) return wrong ? GameWorld.INPUT_DOWN : GameWorld.INPUT_UP;
+            if (mid < gapMid - 12) return wrong ? GameWorld.INPUT_UP : GameWorld.INPUT_DOWN;
+            return wrong ? KEYS[(int) ((h >>> 8) & 1) + 1] : 0;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+// The two wide loops of BatchWorld.step(), over every obstacle slot of every lane. The arrays
+// are slot-major (slot s of lane l is at s * lanes + l), so each slot is a contiguous run of
+// lanes. Both loops only use int arithmetic, so every kernel gives bit-identical results.
+//
+// The Vector API kernel (src-vector/VectorBatchKernel.java) is an optional build: it needs
+// javac and java with --add-modules jdk.incubator.vector. Without it, or with
+// -Dflappy.batchKernel=escalar, the scalar loops below are used.
+public interface BatchKernel {
+    String name();
+
+    // Scrolls every live obstacle by its lane's moving distance and flags in slow the lanes where
+    // one now scores or leaves the screen
+    void scroll(int[] xs, int[] live, int[] scored, int[] moving, int[] slow, int slots, int lanes);
+
+    // Flags in slow the lanes whose hit box (top at hitY) may touch a live obstacle
+    void hits(int[] xs, int[] gapY, int[] gapSize, int[] live, int[] hitY, int[] slow, int slots, int lanes);
+
+    static BatchKernel load() {
+        if (!"escalar".equals(System.getProperty("flappy.batchKernel"))) {
+            try {
+                return (BatchKernel) Class.forName("VectorBatchKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Not built, or the JVM runs without --add-modules jdk.incubator.vector
+            }
+        }
+        return new Scalar();
+    }
+
+    class Scalar implements BatchKernel {
+        @Override
+        public String name() {
+            return "escalar";
+        }
+
+        @Override
+        public void scroll(int[] xs, int[] live, int[] scored, int[] moving, int[] slow, int slots, int lanes) {
+            scroll(xs, live, scored, moving, slow, slots, lanes, 0);
+        }
+
+        @Override
+        public void hits(int[] xs, int[] gapY, int[] gapSize, int[] live, int[] hitY, int[] slow, int slots, int lanes) {
+            hits(xs, gapY, gapSize, live, hitY, slow, slots, lanes, 0);
+        }
+
+        // Lanes from..lanes of every slot; other kernels use these for the lanes they leave over
+        static void scroll(int[] xs, int[] live, int[] scored, int[] moving, int[] slow, int slots, int lanes,
+                           int from) {
+            for (int s = 0; s < slots; s++) {
+                for (int l = from, i = s * lanes + from; l < lanes; l++, i++) {
+                    int x = xs[i] - moving[l] * live[i];
+                    xs[i] = x;
+                    int scores = (x + Obstacle.WIDTH - BatchWorld.PLANE_X) >>> 31 & (scored[i] ^ 1);
+                    int leaves = (x + Obstacle.WIDTH) >>> 31;
+                    slow[l] |= live[i] & (scores | leaves);
+                }
+            }
+        }
+
+        static void hits(int[] xs, int[] gapY, int[] gapSize, int[] live, int[] hitY, int[] slow, int slots, int lanes,
+                         int from) {
+            for (int s = 0; s < slots; s++) {
+                for (int l = from, i = s * lanes + from; l < lanes; l++, i++) {
+                    int x = xs[i];
+                    int py = hitY[l];
+                    int bottomY = gapY[i] + gapSize[i];
+                    boolean overlapX = BatchWorld.HIT_X + BatchWorld.HIT_W > x - 1
+                            && BatchWorld.HIT_X < x + Obstacle.WIDTH + 1;
+                    boolean top = gapY[i] > 0 && py < gapY[i] && py + BatchWorld.HIT_H > 0;
+                    boolean bottom = bottomY < GameWorld.HEIGHT && py + BatchWorld.HIT_H > bottomY
+                            && py < GameWorld.HEIGHT;
+                    slow[l] |= live[i] & (overlapX && (top || bottom) ? 1 : 0);
+                }
+            }
+        }
+    }
+}
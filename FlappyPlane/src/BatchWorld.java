@@ -0,0 +1,272 @@
+import java.util.Arrays;
+
+// Many independent keyboard games stepped in lockstep, for evaluating bots in bulk. State is
+// kept as one array per field with a slot per lane (obstacle arrays are slot-major: slot s of
+// lane l is at s * lanes + l), so each phase of a tick is a straight loop over primitives.
+// Lanes where something rare happens this tick (a spawn, a point, an obstacle leaving, a hit)
+// take the same steps as GameWorld.update() one by one, which keeps every lane bit-identical
+// to a GameWorld fed the same inputs. A lane that crashes stops until start() refills it.
+// The two loops over every obstacle slot run in a BatchKernel (Vector API when built and
+// enabled), and lane() gives each lane as a FlightView so real Policy bots can fly a batch.
+public class BatchWorld {
+    static final int PLANE_X = 80;
+    private static final int START_Y = GameWorld.HEIGHT / 2 - 12;
+    private static final int PLANE_H = 25;
+    private static final int GROUND_TOP = GameWorld.HEIGHT - GameWorld.GROUND_HEIGHT;
+
+    // Plane.getBounds() relative to the plane position
+    static final int HIT_X = PLANE_X + 6;
+    static final int HIT_W = 50 - 12;
+    private static final int HIT_DY = 4;
+    static final int HIT_H = PLANE_H - 8;
+
+    private static final BatchKernel KERNEL = BatchKernel.load();
+
+    private final DifficultyProfile profile;
+    private final int lanes;
+
+    // Per lane
+    private final double[] y;
+    private final double[] velocity;
+    private final double[] rotation;
+    private final int[] running; // 1 while the lane has a game in progress
+    private final int[] ticks;
+    private final int[] score;
+    private final int[] speed;
+    private final int[] spawnTimer;
+    private final int[] spawnInterval;
+    private final int[] crashCause;
+    private final int[] obsCount;
+    private final SimRandom[] random;
+    private final int[] slow; // scratch: lanes that need the one-by-one path this tick
+    private final int[] moving; // scratch: how far each lane scrolls, 0 when stopped
+    private final int[] hitY; // scratch: top of each plane's hit box
+    private final Lane[] views;
+
+    // Per obstacle slot, in spawn order within each lane
+    private int slots = 8;
+    private int[] obsX;
+    private int[] obsGapY;
+    private int[] obsGapSize;
+    private int[] obsLive;
+    private int[] obsScored;
+
+    public BatchWorld(DifficultyProfile profile, int lanes) {
+        if (lanes < 1) throw new IllegalArgumentException("lanes deve ser >= 1");
+        this.profile = profile;
+        this.lanes = lanes;
+        y = new double[lanes];
+        velocity = new double[lanes];
+        rotation = new double[lanes];
+        running = new int[lanes];
+        ticks = new int[lanes];
+        score = new int[lanes];
+        speed = new int[lanes];
+        spawnTimer = new int[lanes];
+        spawnInterval = new int[lanes];
+        crashCause = new int[lanes];
+        obsCount = new int[lanes];
+        random = new SimRandom[lanes];
+        slow = new int[lanes];
+        moving = new int[lanes];
+        hitY = new int[lanes];
+        views = new Lane[lanes];
+        for (int l = 0; l < lanes; l++) views[l] = new Lane(l);
+        obsX = new int[slots * lanes];
+        obsGapY = new int[slots * lanes];
+        obsGapSize = new int[slots * lanes];
+        obsLive = new int[slots * lanes];
+        obsScored = new int[slots * lanes];
+    }
+
+    // Starts a new game in a lane, like GameWorld.start(seed, false)
+    public void start(int lane, long seed) {
+        clearObstacles(lane);
+        y[lane] = START_Y;
+        velocity[lane] = 0;
+        rotation[lane] = 0;
+        running[lane] = 1;
+        ticks[lane] = 0;
+        score[lane] = 0;
+        speed[lane] = profile.getBaseSpeed();
+        spawnTimer[lane] = 0;
+        spawnInterval[lane] = profile.getSpawnInterval();
+        crashCause[lane] = GameWorld.CRASH_NONE;
+        random[lane] = new SimRandom(seed);
+    }
+
+    // Takes the lane out of the batch without a crash (e.g. it reached the tick limit)
+    public void stop(int lane) {
+        running[lane] = 0;
+        clearObstacles(lane);
+    }
+
+    // One tick for every running lane, with that lane's keyboard input. Returns how many lanes
+    // crashed on this tick.
+    public int step(int[] input) {
+        int n = lanes;
+
+        // Plane physics and spawn timers
+        for (int l = 0; l < n; l++) {
+            slow[l] = 0;
+            moving[l] = 0;
+            if (running[l] == 0) continue;
+            int in = input[l];
+            double v = Plane.keyboardVelocity(velocity[l], (in & GameWorld.INPUT_UP) != 0, (in & GameWorld.INPUT_DOWN) != 0);
+            velocity[l] = v;
+            y[l] += v;
+            rotation[l] = Plane.nextRotation(rotation[l], v);
+            ticks[l]++;
+            if (++spawnTimer[l] >= spawnInterval[l]) {
+                spawn(l);
+                spawnTimer[l] = 0;
+            }
+            moving[l] = speed[l];
+        }
+
+        // Scroll every obstacle, and flag lanes where one scores or leaves the screen
+        KERNEL.scroll(obsX, obsLive, obsScored, moving, slow, slots, n);
+        for (int l = 0; l < n; l++) {
+            if (slow[l] != 0) rescroll(l);
+        }
+
+        // Ground, ceiling and a cheap any-hit test per lane; the cause is settled afterwards
+        for (int l = 0; l < n; l++) {
+            slow[l] = 0;
+            hitY[l] = (int) y[l] + HIT_DY;
+            if (running[l] == 0) continue;
+            if (y[l] + PLANE_H > GROUND_TOP) {
+                crashCause[l] = GameWorld.CRASH_GROUND;
+            } else if (y[l] < 0) {
+                crashCause[l] = GameWorld.CRASH_CEILING;
+            }
+        }
+        KERNEL.hits(obsX, obsGapY, obsGapSize, obsLive, hitY, slow, slots, n);
+
+        int crashed = 0;
+        for (int l = 0; l < n; l++) {
+            if (running[l] == 0) continue;
+            if (crashCause[l] == GameWorld.CRASH_NONE && slow[l] != 0) crashCause[l] = obstacleHit(l);
+            if (crashCause[l] != GameWorld.CRASH_NONE) {
+                running[l] = 0;
+                crashed++;
+            }
+        }
+        return crashed;
+    }
+
+    // GameWorld's move/score/drop pass for one lane, undoing the batched scroll first, so a
+    // speed-up in the middle of the pass moves the later obstacles exactly as it does there
+    private void rescroll(int l) {
+        int count = obsCount[l];
+        int batched = speed[l];
+        int kept = 0;
+        for (int k = 0; k < count; k++) {
+            int i = k * lanes + l;
+            int x = obsX[i] + batched - speed[l];
+            boolean scored = obsScored[i] != 0;
+            if (!scored && x + Obstacle.WIDTH < PLANE_X) {
+                scored = true;
+                addPoint(l);
+            }
+            if (x + Obstacle.WIDTH < 0) continue;
+            int j = kept * lanes + l;
+            obsX[j] = x;
+            obsGapY[j] = obsGapY[i];
+            obsGapSize[j] = obsGapSize[i];
+            obsScored[j] = scored ? 1 : 0;
+            kept++;
+        }
+        for (int k = kept; k < count; k++) obsLive[k * lanes + l] = 0;
+        obsCount[l] = kept;
+    }
+
+    // The speed and spawn rules of GameWorld.update() for one more point
+    private void addPoint(int l) {
+        int points = ++score[l];
+        int expectedSpeed = profile.getBaseSpeed() + points / profile.getPointsPerLevel() * profile.getSpeedStep();
+        if (expectedSpeed != speed[l] && expectedSpeed <= profile.getMaxSpeed()) {
+            speed[l] = expectedSpeed;
+        }
+        if (points % profile.getPointsPerLevel() == 0 && spawnInterval[l] > profile.getMinSpawnInterval()) {
+            spawnInterval[l] -= profile.getSpawnIntervalStep();
+        }
+    }
+
+    // Same order as GameWorld.crashCause(), for a lane known to touch an obstacle
+    private int obstacleHit(int l) {
+        int py = hitY[l];
+        for (int k = 0; k < obsCount[l]; k++) {
+            int i = k * lanes + l;
+            int hit = Obstacle.hit(HIT_X, py, HIT_W, HIT_H, obsX[i], obsGapY[i], obsGapSize[i]);
+            if (hit == Obstacle.TOP) return GameWorld.CRASH_OBSTACLE_TOP;
+            if (hit == Obstacle.BOTTOM) return GameWorld.CRASH_OBSTACLE_BOTTOM;
+        }
+        return GameWorld.CRASH_NONE;
+    }
+
+    private void spawn(int l) {
+        int minGapY = profile.getMinGapY();
+        int gapY = random[l].nextInt(profile.getMaxGapY() - minGapY) + minGapY;
+        if (obsCount[l] == slots) grow();
+        int i = obsCount[l]++ * lanes + l;
+        obsX[i] = GameWorld.WIDTH;
+        obsGapY[i] = gapY;
+        obsGapSize[i] = profile.getGapSize();
+        obsLive[i] = 1;
+        obsScored[i] = 0;
+    }
+
+    // Slot-major arrays grow by appending slots; existing lanes stay where they are
+    private void grow() {
+        slots *= 2;
+        obsX = Arrays.copyOf(obsX, slots * lanes);
+        obsGapY = Arrays.copyOf(obsGapY, slots * lanes);
+        obsGapSize = Arrays.copyOf(obsGapSize, slots * lanes);
+        obsLive = Arrays.copyOf(obsLive, slots * lanes);
+        obsScored = Arrays.copyOf(obsScored, slots * lanes);
+    }
+
+    private void clearObstacles(int l) {
+        for (int k = 0; k < obsCount[l]; k++) obsLive[k * lanes + l] = 0;
+        obsCount[l] = 0;
+    }
+
+    public static String getKernelName() { return KERNEL.name(); }
+
+    public int getLanes() { return lanes; }
+    public boolean isRunning(int lane) { return running[lane] != 0; }
+    public int getTicks(int lane) { return ticks[lane]; }
+    public int getScore(int lane) { return score[lane]; }
+    public int getObstacleSpeed(int lane) { return speed[lane]; }
+    public int getCrashCause(int lane) { return crashCause[lane]; }
+    public double getY(int lane) { return y[lane]; }
+    public double getVelocity(int lane) { return velocity[lane]; }
+    public double getRotation(int lane) { return rotation[lane]; }
+
+    // Obstacles of a lane in spawn order, like GameWorld's getters
+    public int getObstacleCount(int lane) { return obsCount[lane]; }
+    public int getObstacleX(int lane, int k) { return obsX[k * lanes + lane]; }
+    public int getObstacleGapY(int lane, int k) { return obsGapY[k * lanes + lane]; }
+    public int getObstacleGapSize(int lane, int k) { return obsGapSize[k * lanes + lane]; }
+
+    // One lane as a FlightView; the same object every time, so it costs nothing per tick
+    public FlightView lane(int lane) { return views[lane]; }
+
+    private final class Lane implements FlightView {
+        private final int l;
+
+        Lane(int lane) { l = lane; }
+
+        @Override public double getPlaneY() { return y[l]; }
+        @Override public double getPlaneVelocity() { return velocity[l]; }
+        @Override public boolean isMouseMode() { return false; }
+        @Override public int getScore() { return score[l]; }
+        @Override public int getObstacleSpeed() { return speed[l]; }
+        @Override public int getObstacleWidth() { return Obstacle.WIDTH; }
+        @Override public int getObstacleCount() { return obsCount[l]; }
+        @Override public int getObstacleX(int k) { return obsX[k * lanes + l]; }
+        @Override public int getObstacleGapY(int k) { return obsGapY[k * lanes + l]; }
+        @Override public int getObstacleGapSize(int k) { return obsGapSize[k * lanes + l]; }
+    }
+}
@@ -0,0 +1,57 @@
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+// A translucent piece of the screen that is painted once and then blitted every frame until
+// the values it shows change. Those values are packed by the caller into two longs. The image
+// comes from the screen's GraphicsConfiguration, at the screen's scale, so the blit stays on
+// the accelerated path and text stays sharp on scaled displays.
+public class CachedOverlay {
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private BufferedImage image;
+    private GraphicsConfiguration config;
+    private long keyA;
+    private long keyB;
+
+    // The area it covers, in panel coordinates
+    public CachedOverlay(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    // Returns a cleared Graphics, in panel coordinates, to repaint the area into (the caller
+    // disposes it), or null when the cached image already shows these values
+    public Graphics2D begin(Graphics2D target, long a, long b) {
+        GraphicsConfiguration gc = target.getDeviceConfiguration();
+        if (image != null && keyA == a && keyB == b && gc == config) return null;
+
+        AffineTransform screen = gc.getDefaultTransform();
+        int w = (int) Math.ceil(width * screen.getScaleX());
+        int h = (int) Math.ceil(height * screen.getScaleY());
+        if (image == null || gc != config || image.getWidth() != w || image.getHeight() != h) {
+            if (image != null) image.flush();
+            image = gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+        }
+        config = gc;
+        keyA = a;
+        keyB = b;
+
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, w, h);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHints(target.getRenderingHints());
+        g.scale(screen.getScaleX(), screen.getScaleY());
+        g.translate(-x, -y);
+        return g;
+    }
+
+    public void draw(Graphics2D target) {
+        target.drawImage(image, x, y, width, height, null);
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A fixed course for endurance mode, read in place from a memory-mapped file. Only a window of
+// the records is mapped at a time and nothing is copied to the heap, so opening a course and
+// playing it cost the same for a thousand obstacles or a billion. The course loops when it
+// runs out: GameWorld puts the speed back to the start speed on every lap, so each lap plays
+// exactly like the first, and the HUD shows the lap number.
+//
+// Arquivo: cabecalho de 32 bytes (magic, versao, numero de registros (long), semente (long),
+// velocidade inicial, 0) e registros little-endian de 8 bytes, um por obstaculo, todos short:
+// distancia ao obstaculo anterior (o primeiro conta da linha de entrada), topo da abertura,
+// tamanho da abertura e mudanca de velocidade ao entrar na tela.
+public class CourseFile implements Closeable {
+    public static final int MAGIC = 0x4F435046; // "FPCO"
+    public static final int VERSION = 1;
+    public static final int HEADER = 32;
+    public static final int RECORD_BYTES = 8;
+    public static final String DIR = "percursos";
+    public static final String SUFFIX = ".fpc";
+
+    private static final long WINDOW_RECORDS = 1 << 20; // 8 MB mapped at a time
+
+    private final FileChannel channel;
+    private final long count;
+    private final long seed;
+    private final int startSpeed;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+
+    // The record last read
+    private int spacing;
+    private int gapY;
+    private int gapSize;
+    private int speedChange;
+
+    private CourseFile(FileChannel channel, long count, long seed, int startSpeed) {
+        this.channel = channel;
+        this.count = count;
+        this.seed = seed;
+        this.startSpeed = startSpeed;
+    }
+
+    public static CourseFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER || header.getInt() != MAGIC) {
+                throw new IOException("nao e um percurso: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("versao de percurso desconhecida: " + version);
+            long count = header.getLong();
+            long seed = header.getLong();
+            int startSpeed = header.getInt();
+            if (count < 1 || channel.size() != HEADER + count * RECORD_BYTES || startSpeed < 1) {
+                throw new IOException("percurso corrompido: " + path);
+            }
+            return new CourseFile(channel, count, seed, startSpeed);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Loads one record; the index wraps around the end of the course
+    public void read(long index) {
+        long i = index % count;
+        if (window == null || i < windowStart || i >= windowEnd) map(i);
+        int at = (int) ((i - windowStart) * RECORD_BYTES);
+        spacing = window.getShort(at);
+        gapY = window.getShort(at + 2);
+        gapSize = window.getShort(at + 4);
+        speedChange = window.getShort(at + 6);
+    }
+
+    private void map(long i) {
+        long start = i - i % WINDOW_RECORDS;
+        long records = Math.min(WINDOW_RECORDS, count - start);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + start * RECORD_BYTES, records * RECORD_BYTES);
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler percurso: " + e.getMessage(), e);
+        }
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+        windowEnd = start + records;
+    }
+
+    public long getCount() { return count; }
+    public long getSeed() { return seed; }
+    public int getStartSpeed() { return startSpeed; }
+    public int getSpacing() { return spacing; }
+    public int getGapY() { return gapY; }
+    public int getGapSize() { return gapSize; }
+    public int getSpeedChange() { return speedChange; }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    // Writes a course from a source of records, a buffer at a time
+    public interface Records {
+        // Fills the four fields of record i: spacing, gap top, gap size, speed change
+        void record(long i, int[] out);
+    }
+
+    public static void write(Path path, long count, long seed, int startSpeed, Records records) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(seed).putInt(startSpeed).putInt(0);
+            int[] r = new int[4];
+            for (long i = 0; i < count; i++) {
+                if (buf.remaining() < RECORD_BYTES) drain(out, buf);
+                records.record(i, r);
+                buf.putShort((short) r[0]).putShort((short) r[1]).putShort((short) r[2]).putShort((short) r[3]);
+            }
+            drain(out, buf);
+        }
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+    }
+}
@@ -0,0 +1,65 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Writes an endurance course from a seed. Spacing and speed follow a difficulty profile the way
+// a normal run would (faster and closer every pointsPerLevel obstacles), then keep drifting a
+// little around the fastest level so long courses do not go flat. Each gap moves from the last
+// one by no more than the plane can climb or dive in the time between them, so every course
+// can be flown. Records are produced and written a buffer at a time, so any length fits in
+// constant memory.
+//
+// Uso: java CourseGenerator [saida.fpc] [obstaculos] [semente] [perfil]
+public class CourseGenerator {
+    private static final double REACH = 4.5 * 0.6; // pixels per tick the plane can move, with margin
+    private static final int JITTER = 10; // percent of spacing
+
+    public static void main(String[] args) throws Exception {
+        Path out = Paths.get(args.length > 0 ? args[0] : CourseFile.DIR + "/resistencia" + CourseFile.SUFFIX);
+        long count = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        DifficultyProfile profile = args.length > 3
+                ? DifficultyProfile.load(Paths.get(DifficultyProfile.DIR), args[3]) : DifficultyProfile.DEFAULT;
+
+        long start = System.nanoTime();
+        SimRandom random = new SimRandom(seed);
+        int minGapY = profile.getMinGapY();
+        int maxGapY = profile.getMaxGapY();
+        int[] state = {profile.getBaseSpeed(), profile.getSpawnInterval(), (minGapY + maxGapY) / 2};
+        CourseFile.write(out, count, seed, profile.getBaseSpeed(), (i, r) -> {
+            int speed = state[0];
+            int interval = state[1];
+            int change = 0;
+            if (i > 0 && i % profile.getPointsPerLevel() == 0) {
+                if (speed + profile.getSpeedStep() <= profile.getMaxSpeed()) {
+                    change = profile.getSpeedStep();
+                } else if (speed > profile.getBaseSpeed() && random.nextInt(4) == 0) {
+                    change = random.nextInt(2) == 0 ? -1 : 1; // past the last level, drift
+                    if (speed + change > profile.getMaxSpeed()) change = -1;
+                }
+                if (interval > profile.getMinSpawnInterval()) interval -= profile.getSpawnIntervalStep();
+            }
+            speed += change;
+
+            int spacing = interval * speed;
+            spacing += spacing * (random.nextInt(2 * JITTER + 1) - JITTER) / 100;
+            spacing = Math.max(Obstacle.WIDTH * 2, Math.min(Short.MAX_VALUE, spacing));
+
+            // The plane has spacing / speed ticks to get from the last gap to this one
+            int reach = (int) (spacing / (double) speed * REACH);
+            int low = Math.max(minGapY, state[2] - reach);
+            int high = Math.min(maxGapY, state[2] + reach);
+            int gapY = low + random.nextInt(Math.max(1, high - low));
+
+            r[0] = spacing;
+            r[1] = gapY;
+            r[2] = profile.getGapSize();
+            r[3] = change;
+            state[0] = speed;
+            state[1] = interval;
+            state[2] = gapY;
+        });
+        System.out.printf("%s: %d obstaculos, semente %d, perfil %s, %.1f MB em %.1f s%n", out, count, seed,
+                profile.getName(), (CourseFile.HEADER + count * CourseFile.RECORD_BYTES) / 1e6,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,123 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+// Balance numbers of a run: speed ramp, spawn rate and gap geometry. Profiles are plain
+// .properties files in dificuldade/; any key left out keeps the classic value.
+public class DifficultyProfile {
+    public static final String DIR = "dificuldade";
+
+    private static final String[] KEYS = {
+        "baseSpeed", "speedStep", "maxSpeed", "pointsPerLevel", "spawnInterval",
+        "minSpawnInterval", "spawnIntervalStep", "gapSize", "minGapY", "gapBottomMargin"
+    };
+    private static final int[] CLASSIC = {3, 2, 15, 10, 95, 55, 5, 160, 70, 230};
+
+    public static final DifficultyProfile DEFAULT = new DifficultyProfile("normal", CLASSIC);
+
+    private final String name;
+    private final int[] values;
+
+    private DifficultyProfile(String name, int[] values) {
+        this.name = name;
+        this.values = values;
+    }
+
+    public String getName() { return name; }
+    public int getBaseSpeed() { return values[0]; }
+    public int getSpeedStep() { return values[1]; }
+    public int getMaxSpeed() { return values[2]; }
+    public int getPointsPerLevel() { return values[3]; }
+    public int getSpawnInterval() { return values[4]; }
+    public int getMinSpawnInterval() { return values[5]; }
+    public int getSpawnIntervalStep() { return values[6]; }
+    public int getGapSize() { return values[7]; }
+    public int getMinGapY() { return values[8]; }
+    public int getMaxGapY() { return GameWorld.HEIGHT - GameWorld.GROUND_HEIGHT - values[9]; }
+
+    public static DifficultyProfile load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(in);
+        }
+        String fileName = file.getFileName().toString();
+        String name = fileName.endsWith(".properties")
+                ? fileName.substring(0, fileName.length() - ".properties".length()) : fileName;
+
+        int[] values = CLASSIC.clone();
+        for (int i = 0; i < KEYS.length; i++) {
+            String v = props.getProperty(KEYS[i]);
+            if (v == null) continue;
+            try {
+                values[i] = Integer.parseInt(v.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException(fileName + ": valor invalido para " + KEYS[i] + ": " + v);
+            }
+        }
+        try {
+            return of(name, values);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(fileName + ": " + e.getMessage());
+        }
+    }
+
+    // Loads dir/<name>.properties, or the classic profile when there is no such file
+    public static DifficultyProfile load(Path dir, String name) throws IOException {
+        Path file = dir.resolve(name + ".properties");
+        if (!Files.exists(file) && name.equals(DEFAULT.name)) return DEFAULT;
+        return load(file);
+    }
+
+    public static List<DifficultyProfile> loadAll(Path dir) throws IOException {
+        List<DifficultyProfile> profiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".properties")).sorted()::iterator) {
+                profiles.add(load(p));
+            }
+        }
+        return profiles;
+    }
+
+    public static DifficultyProfile of(String name, int[] values) {
+        if (values.length != KEYS.length) throw new IllegalArgumentException("Perfil incompleto");
+        int[] v = values.clone();
+        if (v[0] < 1 || v[1] < 0 || v[2] < v[0] || v[3] < 1 || v[4] < 1 || v[5] < 1 || v[6] < 0) {
+            throw new IllegalArgumentException("velocidade ou intervalo invalidos");
+        }
+        int maxGapY = GameWorld.HEIGHT - GameWorld.GROUND_HEIGHT - v[9];
+        if (v[7] < 30 || v[8] < 0 || maxGapY <= v[8]) {
+            throw new IllegalArgumentException("abertura invalida");
+        }
+        return new DifficultyProfile(name, v);
+    }
+
+    // Raw values, in KEYS order, for embedding a profile in replays
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    public static int valueCount() {
+        return KEYS.length;
+    }
+
+    public boolean sameRules(DifficultyProfile other) {
+        return Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(" {");
+        for (int i = 0; i < KEYS.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(KEYS[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
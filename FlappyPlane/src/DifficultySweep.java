@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+// Plays every profile in a folder against a range of seeds with several bots, on all cores,
+// and prints a survival curve per profile: the share of runs that reached each score.
+// The weaker bots stand in for people: one reacts late, the other fumbles some inputs.
+//
+// Uso: java DifficultySweep [pasta] [sementes] [ticks maximos] [saida.csv]
+public class DifficultySweep {
+    private static final int[] CHECKPOINTS = {5, 10, 15, 20, 30, 40, 60, 80, 100};
+    private static final int REACTION_TICKS = 12; // ~200 ms
+    private static final double FUMBLE_RATE = 0.4;
+
+    private static final String[] POLICY_NAMES = {"autopilot", "reacao-200ms", "impreciso"};
+    private static final List<LongFunction<Policy>> POLICIES = List.of(
+        seed -> new Autopilot(),
+        seed -> new Delayed(new Autopilot(), REACTION_TICKS),
+        seed -> new Fumbling(new Autopilot(), FUMBLE_RATE, seed)
+    );
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : DifficultyProfile.DIR);
+        int seeds = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        Path csv = args.length > 3 ? Paths.get(args[3]) : null;
+
+        List<DifficultyProfile> profiles = new ArrayList<>();
+        if (Files.isDirectory(dir)) profiles.addAll(DifficultyProfile.loadAll(dir));
+        if (profiles.isEmpty()) profiles.add(DifficultyProfile.DEFAULT);
+
+        int policies = POLICIES.size();
+        int total = profiles.size() * policies * seeds;
+        int[] scores = new int[total];
+
+        long start = System.nanoTime();
+        IntStream.range(0, total).parallel().forEach(task -> {
+            DifficultyProfile profile = profiles.get(task / (policies * seeds));
+            int policy = task / seeds % policies;
+            long seed = task % seeds;
+            scores[task] = play(profile, POLICIES.get(policy).apply(seed), seed, maxTicks);
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d partidas (%d perfis x %d bots x %d sementes) em %.2fs%n%n",
+                total, profiles.size(), policies, seeds, seconds);
+
+        StringBuilder header = new StringBuilder(String.format("%-14s %-13s %7s", "Perfil", "Bot", "Mediana"));
+        for (int c : CHECKPOINTS) header.append(String.format(" %5s", ">=" + c));
+        System.out.println(header);
+
+        PrintWriter out = csv != null ? new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) : null;
+        if (out != null) out.println("perfil,bot,pontos,sobrevivencia");
+        for (int p = 0; p < profiles.size(); p++) {
+            for (int b = 0; b < policies; b++) {
+                int from = (p * policies + b) * seeds;
+                int[] runs = Arrays.copyOfRange(scores, from, from + seeds);
+                Arrays.sort(runs);
+
+                StringBuilder line = new StringBuilder(String.format("%-14s %-13s %7d",
+                        profiles.get(p).getName(), POLICY_NAMES[b], runs[seeds / 2]));
+                for (int c : CHECKPOINTS) {
+                    line.append(String.format(" %4.0f%%", 100.0 * survivors(runs, c) / seeds));
+                }
+                System.out.println(line);
+
+                if (out != null) {
+                    for (int s = 0; s <= runs[seeds - 1]; s++) {
+                        out.printf("%s,%s,%d,%.4f%n", profiles.get(p).getName(), POLICY_NAMES[b], s,
+                                survivors(runs, s) / (double) seeds);
+                    }
+                }
+            }
+        }
+        if (out != null) {
+            out.close();
+            System.out.println("\nCurvas completas em " + csv);
+        }
+    }
+
+    private static int play(DifficultyProfile profile, Policy policy, long seed, int maxTicks) {
+        GameWorld world = new GameWorld(seed);
+        world.setProfile(profile);
+        world.start(seed, false);
+        for (int tick = 0; tick < maxTicks; tick++) {
+            if (world.update(policy.decide(world))) break;
+        }
+        return world.getScore();
+    }
+
+    // Runs (sorted) that scored at least min
+    private static int survivors(int[] sorted, int min) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < min) lo = mid + 1; else hi = mid;
+        }
+        return sorted.length - lo;
+    }
+
+    // Applies each decision a fixed number of ticks late
+    private static class Delayed implements Policy {
+        private final Policy inner;
+        private final int[] pending;
+        private int head;
+
+        Delayed(Policy inner, int ticks) {
+            this.inner = inner;
+            this.pending = new int[ticks];
+        }
+
+        @Override
+        public int decide(FlightView world) {
+            int input = pending[head];
+            pending[head] = inner.decide(world);
+            head = (head + 1) % pending.length;
+            return input;
+        }
+    }
+
+    // Replaces a share of the decisions with a random key
+    private static class Fumbling implements Policy {
+        private static final int[] KEYS = {0, GameWorld.INPUT_UP, GameWorld.INPUT_DOWN};
+        private final Policy inner;
+        private final double rate;
+        private final Random random;
+
+        Fumbling(Policy inner, double rate, long seed) {
+            this.inner = inner;
+            this.rate = rate;
+            this.random = new Random(seed);
+        }
+
+        @Override
+        public int decide(FlightView world) {
+            int input = inner.decide(world);
+            return random.nextDouble() < rate ? KEYS[random.nextInt(KEYS.length)] : input;
+        }
+    }
+}
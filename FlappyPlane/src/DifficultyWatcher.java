@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+// Holds the active difficulty profile. In dev mode a WatchService thread reloads it whenever
+// its file changes; the game reads current() when a run starts, so edits apply on the next run.
+public class DifficultyWatcher {
+    private final Path dir;
+    private final String name;
+    private volatile DifficultyProfile current;
+    private WatchService watcher;
+
+    public DifficultyWatcher(Path dir, String name) {
+        this.dir = dir;
+        this.name = name;
+        try {
+            current = DifficultyProfile.load(dir, name);
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar perfil de dificuldade: " + e.getMessage());
+            current = DifficultyProfile.DEFAULT;
+        }
+    }
+
+    public DifficultyProfile current() {
+        return current;
+    }
+
+    public void watch() {
+        try {
+            Files.createDirectories(dir);
+            watcher = FileSystems.getDefault().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("Recarga de dificuldade indisponivel: " + e.getMessage());
+            return;
+        }
+        Thread t = new Thread(this::run, "difficulty-watcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void run() {
+        Path file = Path.of(name + ".properties");
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.equals(event.context())) changed = true;
+                }
+                key.reset();
+                if (changed) reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void reload() {
+        try {
+            DifficultyProfile p = DifficultyProfile.load(dir, name);
+            if (p.sameRules(current)) return; // editors often write twice
+            current = p;
+            System.out.println("Perfil recarregado: " + p);
+        } catch (IOException e) {
+            // A half-saved file: keep the previous rules until the next write
+            System.err.println("Perfil ignorado: " + e.getMessage());
+        }
+    }
+
+    public void close() {
+        if (watcher == null) return;
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.concurrent.locks.LockSupport;
+
+// Engine sound made on the fly: a sawtooth at the cylinder firing rate, a square one octave
+// below and noise bursts on each firing, following the plane's velocity and throttle. The game
+// tick hands over pitch and volume packed into one volatile long, so it never waits on audio;
+// the audio thread ramps towards them sample by sample (no clicks) and writes small chunks
+// from one preallocated buffer, allocating nothing while it runs. The line holds about
+// -Dflappy.engineLatencyMs of sound (default 10), so a change is heard within that plus one
+// chunk. With -Dflappy.audio=null, or without a sound card, it synthesizes at the real rate
+// into nothing.
+public class EngineSynth {
+    private static final float RATE = 44100;
+    private static final int CHUNK_FRAMES = 128; // ~2.9 ms
+    private static final float RAMP = 0.02f; // per sample, 90% of a change in ~2.6 ms
+
+    // Firing rate in Hz and volume, idle and under throttle
+    private static final float IDLE_HZ = 38;
+    private static final float THROTTLE_HZ = 62;
+    private static final float HZ_PER_SPEED = 5; // per pixel/tick, either direction
+    private static final float CLIMB_HZ_PER_SPEED = 4; // extra while climbing
+    private static final float IDLE_GAIN = 0.16f;
+    private static final float THROTTLE_GAIN = 0.30f;
+
+    private final Thread audioThread;
+    private final byte[] buffer = new byte[CHUNK_FRAMES * 2];
+    private final SourceDataLine line;
+    private volatile long params; // Float bits of pitch (high) and gain (low)
+    private volatile boolean enabled = true;
+    private volatile boolean closed;
+
+    // Synthesis state, touched only by the audio thread
+    private float pitch = IDLE_HZ;
+    private float gain;
+    private float phase;
+    private float subPhase;
+    private float noise;
+    private int seed = 0x2545F491;
+
+    public EngineSynth() {
+        int latencyMs = Integer.getInteger("flappy.engineLatencyMs", 10);
+        line = "null".equals(System.getProperty("flappy.audio")) ? null : openLine(latencyMs);
+        params = pack(IDLE_HZ, 0);
+        audioThread = new Thread(this::run, "engine-audio");
+        audioThread.setDaemon(true);
+        audioThread.setPriority(Thread.MAX_PRIORITY);
+        audioThread.start();
+    }
+
+    private static SourceDataLine openLine(int latencyMs) {
+        AudioFormat format = new AudioFormat(RATE, 16, 1, true, false);
+        int bytes = Math.max(CHUNK_FRAMES * 2, (int) (RATE * latencyMs / 1000) * 2);
+        try {
+            SourceDataLine l = AudioSystem.getSourceDataLine(format);
+            l.open(format, bytes);
+            l.start();
+            System.out.printf("Som do motor: %.0f Hz, %.1f ms no buffer%n", RATE, l.getBufferSize() / 2 / RATE * 1000);
+            return l;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.out.println("Som do motor sem saida de audio: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Called by the game tick; never blocks. Without a plane in flight pass flying = false.
+    public void update(boolean flying, boolean engineOn, double velocity) {
+        if (!flying || !enabled) {
+            params = pack(IDLE_HZ, 0);
+            return;
+        }
+        float speed = (float) Math.abs(velocity);
+        float climb = (float) Math.max(0, -velocity);
+        float hz = (engineOn ? THROTTLE_HZ : IDLE_HZ) + speed * HZ_PER_SPEED + climb * CLIMB_HZ_PER_SPEED;
+        params = pack(hz, engineOn ? THROTTLE_GAIN : IDLE_GAIN);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) params = pack(IDLE_HZ, 0);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public void close() {
+        closed = true;
+        LockSupport.unpark(audioThread);
+    }
+
+    private static long pack(float pitch, float gain) {
+        return (long) Float.floatToRawIntBits(pitch) << 32 | (Float.floatToRawIntBits(gain) & 0xFFFFFFFFL);
+    }
+
+    private void run() {
+        long chunkNanos = (long) (CHUNK_FRAMES / RATE * 1e9);
+        long deadline = System.nanoTime();
+        try {
+            while (!closed) {
+                render();
+                if (line != null) {
+                    line.write(buffer, 0, buffer.length); // blocks while the line is full
+                } else {
+                    deadline += chunkNanos;
+                    long wait = deadline - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    } else if (wait < -chunkNanos * 8) {
+                        deadline = System.nanoTime();
+                    }
+                }
+            }
+        } finally {
+            if (line != null) line.close();
+        }
+    }
+
+    // Fills the buffer with one chunk of 16-bit little-endian mono
+    private void render() {
+        long p = params;
+        float targetPitch = Float.intBitsToFloat((int) (p >>> 32));
+        float targetGain = Float.intBitsToFloat((int) p);
+        for (int i = 0; i < CHUNK_FRAMES; i++) {
+            pitch += (targetPitch - pitch) * RAMP;
+            gain += (targetGain - gain) * RAMP;
+
+            phase += pitch / RATE;
+            if (phase >= 1) phase -= 1;
+            subPhase += pitch / (2 * RATE);
+            if (subPhase >= 1) subPhase -= 1;
+
+            // xorshift white noise through a one-pole low-pass, loudest right after each firing
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            noise += (seed * (1f / Integer.MAX_VALUE) - noise) * 0.2f;
+            float burst = 1 - phase;
+            burst *= burst;
+            burst *= burst;
+
+            float saw = 2 * phase - 1;
+            float sub = subPhase < 0.5f ? 0.6f : -0.6f;
+            float s = gain * (0.45f * saw + 0.25f * sub + 0.9f * noise * burst);
+            s = s / (1 + Math.abs(s)); // soft clip
+
+            int v = (int) (s * 32767);
+            buffer[2 * i] = (byte) v;
+            buffer[2 * i + 1] = (byte) (v >> 8);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hammers a local EvaluationServer with a fixed number of clients, each sending its next request
+// as soon as the last one answers, and reports requests per second and latency percentiles of
+// the accepted requests. Refused (503) requests are counted apart, and /metricas is sampled
+// while the test runs to show how deep the server queue got.
+//
+// Uso: java EvaluationLoadTest [url] [clientes] [segundos] [sementes por pedido] [politica]
+public class EvaluationLoadTest {
+    private static final int MAX_SAMPLES = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:" + EvaluationServer.DEFAULT_PORT;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+        int seeds = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        String policy = args.length > 4 ? args[4] : "Autopilot";
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long[] latencies = new long[MAX_SAMPLES];
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong nextSeed = new AtomicLong();
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+
+        Thread[] workers = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            workers[c] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    long from = nextSeed.getAndAdd(seeds);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/avaliar?politica=" + policy
+                            + "&sementes=" + from + "-" + (from + seeds - 1))).timeout(Duration.ofSeconds(60)).build();
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        long dt = System.nanoTime() - t0;
+                        if (response.statusCode() == 200) {
+                            int i = ok.getAndIncrement();
+                            if (i < MAX_SAMPLES) latencies[i] = dt;
+                        } else if (response.statusCode() == 503) {
+                            refused.incrementAndGet();
+                            Thread.sleep(10); // a real client would honor Retry-After
+                        } else {
+                            if (errors.getAndIncrement() == 0) System.err.println(response.body());
+                        }
+                    } catch (Exception e) {
+                        if (errors.getAndIncrement() == 0) System.err.println("Erro: " + e);
+                    }
+                }
+            }, "load-client");
+            workers[c].start();
+        }
+
+        // Queue depth while the clients run
+        HttpRequest metrics = HttpRequest.newBuilder(URI.create(base + "/metricas")).build();
+        int maxQueue = 0;
+        long queueSum = 0;
+        int queueSamples = 0;
+        long start = System.nanoTime();
+        while (System.nanoTime() < end) {
+            Thread.sleep(100);
+            try {
+                String body = http.send(metrics, HttpResponse.BodyHandlers.ofString()).body();
+                int at = body.indexOf("\"fila\":") + 7;
+                int depth = Integer.parseInt(body.substring(at, body.indexOf(',', at)));
+                maxQueue = Math.max(maxQueue, depth);
+                queueSum += depth;
+                queueSamples++;
+            } catch (Exception e) {
+                // The server is saturated; the workers report errors
+            }
+        }
+        for (Thread w : workers) w.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int n = Math.min(ok.get(), MAX_SAMPLES);
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        System.out.printf("%d clientes, %.1fs, %d sementes por pedido%n", clients, elapsed, seeds);
+        System.out.printf("%d aceitos (%.1f pedidos/s, %.0f partidas/s), %d recusados (503), %d erros%n",
+                ok.get(), ok.get() / elapsed, ok.get() * (double) seeds / elapsed, refused.get(), errors.get());
+        if (n > 0) {
+            System.out.printf("latencia ms: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    percentile(sorted, 99.9), sorted[n - 1] / 1e6);
+        }
+        if (queueSamples > 0) {
+            System.out.printf("fila do servidor: media %.1f, maxima %d%n", queueSum / (double) queueSamples, maxQueue);
+        }
+    }
+
+    // Nearest rank, in milliseconds
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p / 100 * sorted.length) - 1)] / 1e6;
+    }
+}
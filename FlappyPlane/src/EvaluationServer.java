@@ -0,0 +1,411 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Scores bot submissions on localhost for competitions. A request names a Policy class and a set
+// of seeds; the games run headless under the same rules as GamePanel (keyboard or mouse mode, a
+// difficulty profile) on a fixed pool of compute threads, and the answer is the score statistics
+// as JSON. Keyboard games run in BatchWorld lanes, each flown by its own policy through
+// lane(); mouse games run one GameWorld at a time. A request may ask for at most
+// MAX_REQUEST_TICKS ticks in all (seeds x ticks). Requests wait in a bounded queue in front
+// of the pool; when it is full the server answers 503 at once instead of piling up work. Each
+// request is handled on its own virtual thread, which just waits for its games and cancels
+// them if it is interrupted or the exchange fails; on a JDK without virtual threads a cached
+// pool of daemon threads stands in.
+//
+//   GET|POST /avaliar?politica=Autopilot&sementes=1-100,500&perfil=normal&ticks=20000
+//            (mouse=1 plays mouse mode, for policies that answer with a mouse Y; Autopilot
+//            only flies the keyboard)
+//   GET      /metricas   (fila, executando, concluidas, recusadas, erros)
+//
+// Uso: java EvaluationServer [porta] [threads de calculo] [fila] [classpath dos bots]
+//      java EvaluationServer conferir   (checks the seed and percentile helpers)
+public class EvaluationServer {
+    public static final int DEFAULT_PORT = 47801;
+    private static final int MAX_SEEDS = 10_000;
+    private static final int DEFAULT_TICKS = 20_000;
+    private static final int MAX_TICKS = 1_000_000;
+    private static final long MAX_REQUEST_TICKS = 100_000_000L;
+    private static final int BATCH_LANES = 256;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ThreadPoolExecutor compute;
+    private final ClassLoader bots;
+    private final Map<String, Class<? extends Policy>> policies = new ConcurrentHashMap<>();
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong games = new AtomicLong();
+
+    public EvaluationServer(int port, int threads, int queue, ClassLoader bots) throws IOException {
+        this.bots = bots;
+        compute = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), r -> {
+                    Thread t = new Thread(r, "evaluation-compute");
+                    t.setDaemon(true);
+                    return t;
+                });
+        handlers = requestExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 256);
+        server.setExecutor(handlers);
+        server.createContext("/avaliar", this::evaluate);
+        server.createContext("/metricas", this::metrics);
+        server.start();
+    }
+
+    // One virtual thread per request where the JDK has them (21+), else pooled daemon threads
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "evaluation-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Requests waiting for a compute thread
+    public int getQueueDepth() {
+        return compute.getQueue().size();
+    }
+
+    public void close() {
+        server.stop(0);
+        compute.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    // ==================== HANDLERS ====================
+    private void evaluate(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> params = params(exchange);
+            Class<? extends Policy> policy = policy(params.get("politica"));
+            long[] seeds = parseSeeds(params.getOrDefault("sementes", "0-99"));
+            DifficultyProfile profile = profile(params.get("perfil"));
+            boolean mouse = "1".equals(params.get("mouse")) || "true".equals(params.get("mouse"));
+            int maxTicks = Integer.parseInt(params.getOrDefault("ticks", String.valueOf(DEFAULT_TICKS)));
+            if (maxTicks < 1 || maxTicks > MAX_TICKS) throw new IllegalArgumentException("ticks deve ser 1 a " + MAX_TICKS);
+            if ((long) seeds.length * maxTicks > MAX_REQUEST_TICKS) {
+                throw new IllegalArgumentException("sementes x ticks deve ser ate " + MAX_REQUEST_TICKS);
+            }
+
+            Future<int[]> result;
+            try {
+                result = compute.submit(() -> play(policy, seeds, profile, mouse, maxTicks));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, "{\"erro\":\"fila cheia\",\"fila\":" + getQueueDepth() + "}");
+                return;
+            }
+            // A no-op once the games are done; otherwise nobody will read them, so free the thread
+            try {
+                long start = System.nanoTime();
+                int[] scores = result.get();
+                double millis = (System.nanoTime() - start) / 1e6;
+                done.incrementAndGet();
+                send(exchange, 200, stats(policy.getName(), profile.getName(), scores, millis));
+            } finally {
+                if (result.cancel(true)) compute.purge();
+            }
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, "{\"erro\":" + quote(e.getMessage()) + "}");
+        } catch (ExecutionException e) {
+            failed.incrementAndGet();
+            send(exchange, 500, "{\"erro\":" + quote("politica falhou: " + e.getCause()) + "}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        send(exchange, 200, String.format("{\"fila\":%d,\"capacidade\":%d,\"executando\":%d,\"threads\":%d,"
+                        + "\"concluidas\":%d,\"recusadas\":%d,\"erros\":%d,\"partidas\":%d}",
+                getQueueDepth(), getQueueDepth() + compute.getQueue().remainingCapacity(), compute.getActiveCount(),
+                compute.getMaximumPoolSize(), done.get(), rejected.get(), failed.get(), games.get()));
+    }
+
+    // Every response carries the queue depth, so clients can back off before they get a 503
+    private void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.getResponseHeaders().set("X-Fila", String.valueOf(getQueueDepth()));
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // ==================== GAMES ====================
+    // Runs on a compute thread; a new policy instance per game, since bots may keep state
+    private int[] play(Class<? extends Policy> type, long[] seeds, DifficultyProfile profile, boolean mouse,
+                       int maxTicks) throws ReflectiveOperationException {
+        if (!mouse) return playBatched(type, seeds, profile, maxTicks);
+        int[] scores = new int[seeds.length];
+        for (int i = 0; i < seeds.length; i++) {
+            if (Thread.currentThread().isInterrupted()) break;
+            Policy policy = type.getDeclaredConstructor().newInstance();
+            GameWorld world = new GameWorld(seeds[i]);
+            world.setProfile(profile);
+            world.start(seeds[i], mouse);
+            for (int tick = 0; tick < maxTicks; tick++) {
+                if (world.update(policy.decide(world))) break;
+            }
+            scores[i] = world.getScore();
+            games.incrementAndGet();
+        }
+        return scores;
+    }
+
+    // Keyboard games in BatchWorld lanes, refilled with the next seed as games end; the scores
+    // are the same as one GameWorld per game
+    private int[] playBatched(Class<? extends Policy> type, long[] seeds, DifficultyProfile profile, int maxTicks)
+            throws ReflectiveOperationException {
+        int[] scores = new int[seeds.length];
+        int lanes = Math.min(seeds.length, BATCH_LANES);
+        BatchWorld world = new BatchWorld(profile, lanes);
+        Policy[] policy = new Policy[lanes];
+        int[] game = new int[lanes];
+        int[] input = new int[lanes];
+        int next = 0;
+        for (int l = 0; l < lanes; l++) {
+            game[l] = next++;
+            world.start(l, seeds[game[l]]);
+            policy[l] = type.getDeclaredConstructor().newInstance();
+        }
+        int active = lanes;
+        while (active > 0) {
+            if (Thread.currentThread().isInterrupted()) break;
+            for (int l = 0; l < lanes; l++) {
+                if (world.isRunning(l)) input[l] = policy[l].decide(world.lane(l));
+            }
+            world.step(input);
+            for (int l = 0; l < lanes; l++) {
+                if (game[l] < 0) continue;
+                boolean running = world.isRunning(l);
+                if (running && world.getTicks(l) < maxTicks) continue;
+                scores[game[l]] = world.getScore(l);
+                games.incrementAndGet();
+                if (running) world.stop(l);
+                if (next < seeds.length) {
+                    game[l] = next++;
+                    world.start(l, seeds[game[l]]);
+                    policy[l] = type.getDeclaredConstructor().newInstance();
+                } else {
+                    game[l] = -1;
+                    active--;
+                }
+            }
+        }
+        return scores;
+    }
+
+    private Class<? extends Policy> policy(String name) {
+        if (name == null || name.isEmpty()) throw new IllegalArgumentException("falta politica");
+        return policies.computeIfAbsent(name, n -> {
+            Class<?> type;
+            try {
+                // Not initialized yet: a name from the query string must not run arbitrary static
+                // initializers; a Policy is initialized by its first newInstance()
+                type = Class.forName(n, false, bots);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new IllegalArgumentException("politica nao encontrada: " + n);
+            }
+            if (!Policy.class.isAssignableFrom(type)) throw new IllegalArgumentException(n + " nao implementa Policy");
+            try {
+                type.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(n + " precisa de um construtor sem argumentos");
+            }
+            return type.asSubclass(Policy.class);
+        });
+    }
+
+    private static DifficultyProfile profile(String name) {
+        if (name == null || name.equals(DifficultyProfile.DEFAULT.getName())) return DifficultyProfile.DEFAULT;
+        if (!name.matches("[A-Za-z0-9_-]+")) throw new IllegalArgumentException("perfil invalido: " + name);
+        try {
+            return DifficultyProfile.load(Paths.get(DifficultyProfile.DIR), name);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("perfil indisponivel: " + name);
+        }
+    }
+
+    // "1-100,500,7" in the order given; ranges are inclusive
+    static long[] parseSeeds(String spec) {
+        long[] seeds = new long[16];
+        int n = 0;
+        try {
+            for (String part : spec.split(",")) {
+                part = part.trim();
+                if (part.isEmpty()) continue;
+                int dash = part.indexOf('-', 1);
+                long from = Long.parseLong(dash < 0 ? part : part.substring(0, dash));
+                long to = dash < 0 ? from : Long.parseLong(part.substring(dash + 1));
+                // to - from is exact as an unsigned value, even for ranges wider than Long.MAX_VALUE
+                long span = to - from;
+                if (to < from || Long.compareUnsigned(span, MAX_SEEDS - n) >= 0) {
+                    throw new IllegalArgumentException("ate " + MAX_SEEDS + " sementes");
+                }
+                for (long k = 0; k <= span; k++) {
+                    if (n == seeds.length) seeds = Arrays.copyOf(seeds, n * 2);
+                    seeds[n++] = from + k;
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("sementes invalidas: " + spec);
+        }
+        if (n == 0) throw new IllegalArgumentException("nenhuma semente");
+        return Arrays.copyOf(seeds, n);
+    }
+
+    // ==================== JSON ====================
+    private static String stats(String policy, String profile, int[] scores, double millis) {
+        int[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (int s : scores) mean += s;
+        mean /= scores.length;
+        double var = 0;
+        for (int s : scores) var += (s - mean) * (s - mean);
+        double sd = Math.sqrt(var / scores.length);
+
+        StringBuilder json = new StringBuilder(64 + scores.length * 4);
+        json.append("{\"politica\":").append(quote(policy))
+            .append(",\"perfil\":").append(quote(profile))
+            .append(",\"partidas\":").append(scores.length)
+            .append(String.format(",\"media\":%.3f,\"desvio\":%.3f", mean, sd))
+            .append(",\"minimo\":").append(sorted[0])
+            .append(",\"mediana\":").append(percentile(sorted, 50))
+            .append(",\"p90\":").append(percentile(sorted, 90))
+            .append(",\"maximo\":").append(sorted[sorted.length - 1])
+            .append(String.format(",\"ms\":%.1f", millis))
+            .append(",\"pontos\":[");
+        for (int i = 0; i < scores.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(scores[i]);
+        }
+        return json.append("]}").toString();
+    }
+
+    // Nearest-rank percentile of a sorted array
+    static int percentile(int[] sorted, int p) {
+        return sorted[Math.max(0, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+    }
+
+    // Regression checks for the parsing helpers, run with "java EvaluationServer conferir"
+    static void checkHelpers() {
+        expect(Arrays.equals(parseSeeds("1-3, 7,-2"), new long[] {1, 2, 3, 7, -2}), "lista de sementes");
+        expect(parseSeeds("0-" + (MAX_SEEDS - 1)).length == MAX_SEEDS, "limite de sementes");
+        expect(parseSeeds(Long.MAX_VALUE - 2 + "-" + Long.MAX_VALUE).length == 3, "faixa no fim dos long");
+        expectRejected("0-" + MAX_SEEDS);
+        expectRejected("0-" + (MAX_SEEDS - 1) + ",5");
+        expectRejected("-2-" + Long.MAX_VALUE); // to - from overflows
+        expectRejected(Long.MIN_VALUE + "-" + Long.MAX_VALUE);
+        expectRejected("5-1");
+        expectRejected("x");
+        int[] sorted = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        expect(percentile(sorted, 50) == 5 && percentile(sorted, 90) == 9 && percentile(new int[] {4}, 90) == 4,
+                "percentis");
+    }
+
+    private static void expectRejected(String spec) {
+        try {
+            parseSeeds(spec);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        throw new IllegalStateException("sementes aceitas: " + spec);
+    }
+
+    private static void expect(boolean ok, String what) {
+        if (!ok) throw new IllegalStateException("falhou: " + what);
+    }
+
+    private static String quote(String s) {
+        StringBuilder q = new StringBuilder("\"");
+        for (char c : String.valueOf(s).toCharArray()) {
+            if (c == '"' || c == '\\') q.append('\\').append(c);
+            else if (c < 0x20) q.append(String.format("\\u%04x", (int) c));
+            else q.append(c);
+        }
+        return q.append('"').toString();
+    }
+
+    // Query string, plus a form-encoded body on POST
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        addParams(params, exchange.getRequestURI().getRawQuery());
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] body = in.readNBytes(64 * 1024);
+                addParams(params, new String(body, StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void addParams(Map<String, String> params, String query) {
+        if (query == null) return;
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key.trim(), value.trim());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("conferir")) {
+            checkHelpers();
+            System.out.println("Auxiliares conferidos");
+            return;
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 2 ? Integer.parseInt(args[2]) : threads * 4;
+        ClassLoader bots = EvaluationServer.class.getClassLoader();
+        if (args.length > 3) {
+            String[] entries = args[3].split(File.pathSeparator);
+            URL[] urls = new URL[entries.length];
+            for (int i = 0; i < entries.length; i++) urls[i] = new File(entries[i]).toURI().toURL();
+            bots = new URLClassLoader(urls, bots);
+        }
+        EvaluationServer server = new EvaluationServer(port, threads, queue, bots);
+        System.out.printf("Avaliacao em http://localhost:%d/avaliar (%d threads de calculo, fila de %d, %s)%n",
+                server.getPort(), threads, queue,
+                server.handlers instanceof ThreadPoolExecutor ? "pedidos em threads comuns" : "pedidos em threads virtuais");
+    }
+}
@@ -1,13 +1,19 @@
 import javax.swing.*;
 
+// Uso: java FlappyPlane [jogadores]  (2 a 4 abre a tela dividida)
 public class FlappyPlane {
     public static void main(String[] args) {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        if (players < 1 || players > SplitScreenWorld.MAX_PLAYERS) {
+            System.err.println("jogadores deve ser 1 a " + SplitScreenWorld.MAX_PLAYERS);
+            System.exit(1);
+        }
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Flappy Plane");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             frame.setResizable(false);
 
-            GamePanel gamePanel = new GamePanel();
+            JPanel gamePanel = players > 1 ? new SplitScreenPanel(players) : new GamePanel();
             frame.add(gamePanel);
             frame.pack();
             frame.setLocationRelativeTo(null);
@@ -0,0 +1,14 @@
+// What a Policy sees of one game: the plane and the obstacles in spawn order. GameWorld is one,
+// and so is each lane of a BatchWorld, so the same bot can fly a single game or a batch.
+public interface FlightView {
+    double getPlaneY();
+    double getPlaneVelocity();
+    boolean isMouseMode();
+    int getScore();
+    int getObstacleSpeed();
+    int getObstacleWidth();
+    int getObstacleCount();
+    int getObstacleX(int i);
+    int getObstacleGapY(int i);
+    int getObstacleGapSize(int i);
+}
@@ -0,0 +1,149 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+
+// Paces rendering. The simulation thread asks shouldRender() after every tick: every tick while
+// something moves, every few ticks when the game only idles, and never while the window is
+// minimized or hidden, when the simulation itself waits in awaitVisible(). Input on the EDT
+// calls wake() to get back to full rate by the next tick.
+public class FrameScheduler {
+    public enum Mode { ACTIVE, IDLE, SUSPENDED }
+
+    public static final int IDLE_EVERY = 5; // 12.5 FPS at 16 ms ticks
+    // Shorter idle stretches only go into the totals: in menus and on the game over screen every
+    // mouse move wakes the scheduler for one tick, and a line each time would flood the console
+    private static final long MIN_LOGGED_NANOS = 10_000_000_000L;
+
+    private volatile Mode mode = Mode.ACTIVE;
+    private volatile boolean focused = true;
+    private boolean wantActive = true;
+    private boolean hidden;
+    private long lastRenderTick = -IDLE_EVERY;
+    private Window window;
+
+    // Savings: frames that full rate would have drawn minus frames actually drawn
+    private long modeStart;
+    private long framesInMode;
+    private long framesAvoided;
+    private long frameNanos;
+    private long framesMeasured;
+    private long secondStart;
+    private int framesThisSecond;
+    private int fps;
+
+    public FrameScheduler(Component view) {
+        modeStart = secondStart = System.nanoTime();
+        view.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                setHidden(!view.isShowing());
+            }
+            Window w = SwingUtilities.getWindowAncestor(view);
+            if (w != null && w != window) watch(w);
+        });
+    }
+
+    private void watch(Window w) {
+        window = w;
+        w.addWindowListener(new WindowAdapter() {
+            @Override public void windowIconified(WindowEvent e) { setHidden(true); }
+            @Override public void windowDeiconified(WindowEvent e) { setHidden(false); }
+            @Override public void windowActivated(WindowEvent e) { focused = true; }
+            @Override public void windowDeactivated(WindowEvent e) { focused = false; }
+        });
+    }
+
+    private synchronized void setHidden(boolean hidden) {
+        this.hidden = hidden;
+        apply();
+        notifyAll();
+    }
+
+    // Simulation thread: whether the state it just reached needs full rate
+    public synchronized void request(boolean active) {
+        if (active == wantActive) return;
+        wantActive = active;
+        apply();
+    }
+
+    // Simulation thread: whether to publish a frame for this tick
+    public synchronized boolean shouldRender(long tick) {
+        if (mode == Mode.SUSPENDED) return false;
+        if (mode == Mode.IDLE && tick - lastRenderTick < IDLE_EVERY) return false;
+        lastRenderTick = tick;
+        return true;
+    }
+
+    // Simulation thread: blocks while nothing is visible. Returns true if it had to wait.
+    public synchronized boolean awaitVisible() throws InterruptedException {
+        if (!hidden) return false;
+        while (hidden) wait();
+        return true;
+    }
+
+    public synchronized boolean isHidden() {
+        return hidden;
+    }
+
+    // Input: back to full rate from the next tick on
+    public synchronized void wake() {
+        wantActive = true;
+        apply();
+    }
+
+    private void apply() {
+        Mode next = hidden ? Mode.SUSPENDED : wantActive ? Mode.ACTIVE : Mode.IDLE;
+        if (next == mode) return;
+
+        long now = System.nanoTime();
+        long expected = (now - modeStart) / (long) (GameClock.TICK_MILLIS * 1_000_000);
+        if (mode != Mode.ACTIVE) {
+            long avoided = Math.max(0, expected - framesInMode);
+            framesAvoided += avoided;
+            if (now - modeStart >= MIN_LOGGED_NANOS) {
+                System.out.printf("%s por %ds: %d quadros evitados (~%.1f s de CPU)%n",
+                        mode == Mode.IDLE ? "Ocioso" : "Suspenso", (now - modeStart) / 1_000_000_000L,
+                        avoided, avoided * averageFrameNanos() / 1e9);
+            }
+        }
+        mode = next;
+        modeStart = now;
+        framesInMode = 0;
+    }
+
+    // EDT: bookkeeping for one painted frame and what it cost
+    public synchronized void frameDone(long nanos) {
+        framesInMode++;
+        frameNanos += nanos;
+        framesMeasured++;
+        framesThisSecond++;
+        long now = System.nanoTime();
+        if (now - secondStart >= 1_000_000_000L) {
+            fps = framesThisSecond;
+            framesThisSecond = 0;
+            secondStart = now;
+        }
+    }
+
+    private double averageFrameNanos() {
+        return framesMeasured == 0 ? 0 : frameNanos / (double) framesMeasured;
+    }
+
+    public Mode getMode() { return mode; }
+    public boolean isWindowFocused() { return focused; }
+    public synchronized int getFps() { return fps; }
+
+    // Frames avoided so far, including the current idle stretch
+    public synchronized long getFramesAvoided() {
+        if (mode == Mode.ACTIVE) return framesAvoided;
+        long expected = (System.nanoTime() - modeStart) / (long) (GameClock.TICK_MILLIS * 1_000_000);
+        return framesAvoided + Math.max(0, expected - framesInMode);
+    }
+
+    public synchronized double getCpuSavedSeconds() {
+        return getFramesAvoided() * averageFrameNanos() / 1e9;
+    }
+
+    public synchronized double getAverageFrameMillis() {
+        return averageFrameNanos() / 1e6;
+    }
+}
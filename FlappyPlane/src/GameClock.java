@@ -0,0 +1,96 @@
+import java.awt.Color;
+
+// The one time source of a frame. The real-time driver reads the system clock once per frame
+// and turns it into whole simulation ticks with a fixed-step accumulator (scaled for slow
+// motion or fast forward); headless callers just step(). Animation time is derived from the
+// tick count, so drawing is deterministic, and the shared oscillators are computed once per
+// frame instead of once per building.
+public class GameClock {
+    public static final double TICK_MILLIS = 16.0;
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    // Timer jitter within this much of a whole tick counts as exactly that tick
+    private static final double SNAP_MILLIS = 2.0;
+
+    private long tick;
+    private double alpha;
+    private double accumulator;
+    private long lastNanos;
+    private boolean started;
+    private double scale = 1.0;
+
+    // Per-frame oscillators
+    private double blink;
+    private double pulse;
+    private Color warningColor;
+
+    public GameClock() {
+        refresh();
+    }
+
+    // Real-time driver: returns how many ticks to simulate for this frame
+    public int advance(long nowNanos) {
+        if (!started) {
+            started = true;
+            lastNanos = nowNanos;
+            accumulator = TICK_MILLIS; // first frame runs one tick
+        } else {
+            double elapsed = (nowNanos - lastNanos) / 1e6;
+            lastNanos = nowNanos;
+            double ticks = Math.rint(elapsed / TICK_MILLIS);
+            if (ticks >= 1 && Math.abs(elapsed - ticks * TICK_MILLIS) < SNAP_MILLIS) {
+                elapsed = ticks * TICK_MILLIS;
+            }
+            accumulator += Math.min(elapsed, MAX_TICKS_PER_FRAME * TICK_MILLIS) * scale;
+        }
+
+        int ticks = (int) (accumulator / TICK_MILLIS);
+        if (ticks > MAX_TICKS_PER_FRAME) {
+            ticks = MAX_TICKS_PER_FRAME;
+            accumulator = ticks * TICK_MILLIS; // drop the backlog instead of spiralling
+        }
+        accumulator -= ticks * TICK_MILLIS;
+        tick += ticks;
+        alpha = accumulator / TICK_MILLIS;
+        refresh();
+        return ticks;
+    }
+
+    // Headless driver: exactly one tick
+    public void step() {
+        tick++;
+        alpha = 0;
+        refresh();
+    }
+
+    // Follows a clock running on another thread
+    public void set(long tick, double scale) {
+        this.tick = tick;
+        this.scale = scale;
+        alpha = 0;
+        refresh();
+    }
+
+    // Forgets the last frame time, e.g. after the timer was stopped
+    public void resync() {
+        started = false;
+    }
+
+    private void refresh() {
+        double t = getTime();
+        blink = Math.sin(t * 0.005);
+        pulse = Math.sin(t / TICK_MILLIS * 0.1);
+        warningColor = new Color(255, 50, 50, 180 + (int) (75 * blink));
+    }
+
+    public long getTick() { return tick; }
+    // Fraction of the next tick already elapsed, for interpolation
+    public double getAlpha() { return alpha; }
+    // Scaled game time in milliseconds
+    public double getTime() { return (tick + alpha) * TICK_MILLIS; }
+    public double getScale() { return scale; }
+    public void setScale(double scale) { this.scale = Math.max(0, scale); }
+
+    public double blink() { return blink; }
+    public double pulse() { return pulse; }
+    public Color warningColor() { return warningColor; }
+}
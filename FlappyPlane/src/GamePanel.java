@@ -1,54 +1,185 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Random;
-
-public class GamePanel extends JPanel implements ActionListener, KeyListener, MouseMotionListener, MouseListener {
-    public static final int WIDTH = 500;
-    public static final int HEIGHT = 600;
-    private static final int GROUND_HEIGHT = 60;
-    private static final int BASE_SPEED = 3;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+// The game runs on its own simulation thread, which owns every game field below. Swing input is
+// queued for it, and after each rendered tick it publishes a RenderState through a TripleBuffer;
+// painting on the EDT only ever reads that snapshot, so a slow paint never delays a tick.
+public class GamePanel extends JPanel implements KeyListener, MouseMotionListener, MouseListener {
+    public static final int WIDTH = GameWorld.WIDTH;
+    public static final int HEIGHT = GameWorld.HEIGHT;
+    private static final int GROUND_HEIGHT = GameWorld.GROUND_HEIGHT;
 
     private enum GameState { MENU, CONTROL_SELECT, PLAYING, GAME_OVER }
     private enum ControlMode { KEYBOARD, MOUSE }
 
+    // Ranks shown on the game over panel, by minimum score
+    private static final int[] RANK_SCORES = {0, 5, 15, 25, 40};
+    private static final String[] RANK_NAMES = {"NOVATO", "CADETE", "TENENTE", "CAPITAO", "ACE PILOTO"};
+    private static final Color[] RANK_COLORS = {
+        new Color(150, 150, 150), new Color(100, 180, 100), new Color(205, 127, 50),
+        new Color(192, 192, 192), new Color(255, 215, 0)
+    };
+
+    // Everything the painter needs from one tick
+    private static class RenderState {
+        int[] world = WorldSnapshot.create();
+        final int[] ghosts = new int[MAX_GHOSTS * 2];
+        int ghostCount;
+        long tick;
+        double timeScale = 1;
+        GameState state = GameState.MENU;
+        boolean mouseMode;
+        int selectedOption;
+        boolean ghostMode;
+        boolean practiceMode;
+        boolean practice;
+        boolean enduranceMode;
+        boolean endurance;
+        long courseLength;
+        boolean canRewind;
+        boolean demo;
+        boolean musicEnabled;
+        boolean engineSound;
+        int flashAlpha;
+        int bestScore;
+        int pointsPerLevel;
+        int stress;
+        int obstacleTotal;
+        int tps;
+        double tickMillis;
+    }
+
+    private final TripleBuffer<RenderState> frames = new TripleBuffer<>(RenderState::new);
+    private final ConcurrentLinkedQueue<Runnable> inputQueue = new ConcurrentLinkedQueue<>();
+    private volatile boolean inputSeen;
+    private Thread simulation;
+
+    // EDT side: the scene rebuilt from the latest RenderState
+    private final GameWorld view = new GameWorld(0);
+    private final GameClock viewClock = new GameClock();
+    private RenderState frame = new RenderState();
+    private long viewTick;
+    private boolean offscreen; // driven by replayTick(), never skips scenery
+
     private GameState state;
     private ControlMode controlMode;
     private int selectedOption; // 0 = teclado, 1 = mouse
-    private Plane plane;
-    private ArrayList<Obstacle> obstacles;
-    private Timer gameTimer;
+    private GameWorld world;
+    private FrameScheduler scheduler;
     private Random random;
-    private int score;
     private int bestScore;
-    private int obstacleSpeed;
-    private int spawnTimer;
-    private int spawnInterval;
-    private int groundOffset;
-    private int lastSpeedUpScore;
-
-    // Parallax backgrounds
-    private double bgMountainOffset;
-    private double bgCityOffset;
 
-    // Clouds
-    private double[] cloudX;
-    private int[] cloudY;
-    private double[] cloudSpeed;
+    // Replays of finished runs, written off the EDT
+    private static final String REPLAY_DIR = "replays";
+    private static final String TELEMETRY_DIR = "telemetria";
+    private Replay replay;
+    private ExecutorService replayWriter;
+
+    // Persistent results
+    private static final String LEADERBOARD_DIR = "placar";
+    private Leaderboard leaderboard;
+
+    // Ghost racing against recorded runs on the same seed
+    private static final int MAX_GHOSTS = 100;
+    private boolean ghostMode;
+    private GhostFleet ghosts;
+    private volatile GhostFleet preparedGhosts; // loaded on the replay thread, taken at run start
+
+    // Practice runs keep a few seconds of history; R after a crash rewinds and retries from there.
+    // History length comes from -Dflappy.rewindSeconds (default 10).
+    private static final int REWIND_TICKS = 188; // ~3 s
+    private boolean practiceMode;
+    private boolean practice;
+    private RewindBuffer rewind;
+    private int runTicks;
+
+    // Endurance runs (C on the control screen) fly the course in -Dflappy.course, by default
+    // percursos/resistencia.fpc, opened on first use. Like practice they set no record.
+    private static final String COURSE_PATH = System.getProperty("flappy.course",
+            CourseFile.DIR + File.separator + "resistencia" + CourseFile.SUFFIX);
+    private CourseFile course;
+    private boolean enduranceMode;
+    private boolean endurance;
+
+    // Balance rules from dificuldade/<nome>.properties (-Dflappy.difficulty), reloaded on save
+    // when running with -Dflappy.dev=true
+    private DifficultyWatcher difficulty;
+
+    // Live feed for a second screen, enabled with -Dflappy.spectatorPort=<porta>
+    private SpectatorFeed spectatorFeed;
+    private Telemetry telemetry;
+
+    // Autopilot demo, started with D or after the menu sits idle
+    private static final int DEMO_IDLE_TICKS = 1200; // ~20 s
+    private Autopilot autopilot = new Autopilot();
+    private boolean demo;
+    private int menuIdleTicks;
+
+    // Single time source for logic and animation; -Dflappy.dev=true enables PgUp/PgDn time scaling
+    private static final double[] TIME_SCALES = {0, 0.25, 0.5, 1, 2, 4};
+    private static final int RESTART_LOCK_TICKS = 31; // ~500 ms
+    private final GameClock clock = new GameClock();
+    private boolean devMode;
+
+    // Frame pacing: full rate while playing or right after input, low rate otherwise
+    private static final int MENU_SMOOTH_TICKS = 190; // ~3 s
+    private long lastInputTick;
+    private boolean perfOverlay;
+
+    // Stress mode (F6): an autopilot run with thousands of extra obstacles and props per
+    // second, reporting ticks/s and frames/s on screen and once a second in the console
+    private static final int[] STRESS_RATES = {0, 1000, 3000, 10000};
+    private int stressLevel;
+    private long statsStart;
+    private int statsTicks;
+    private long statsNanos;
+    private int tps;
+    private double tickMillis;
+
+    // Scene detail follows the measured paint time; -Dflappy.quality=<0-4> pins a tier
+    private QualityGovernor governor;
+    private BufferedImage lowResScene;
+
+    // Menu panels that only change with a few values are painted once and blitted
+    private static final int CONTROL_PANEL_W = 380;
+    private static final int CONTROL_PANEL_H = 340;
+    private static final int GAME_OVER_PANEL_W = 300;
+    private static final int GAME_OVER_PANEL_H = 260;
+    private final CachedOverlay controlOverlay = new CachedOverlay((WIDTH - CONTROL_PANEL_W) / 2 - 5,
+            (HEIGHT - CONTROL_PANEL_H) / 2 - 25, CONTROL_PANEL_W + 10, CONTROL_PANEL_H + 85);
+    private final CachedOverlay gameOverOverlay = new CachedOverlay((WIDTH - GAME_OVER_PANEL_W) / 2 - 5,
+            (HEIGHT - GAME_OVER_PANEL_H) / 2 - 25, GAME_OVER_PANEL_W + 10, GAME_OVER_PANEL_H + 75);
 
     // Visual
     private float menuPlaneBob;
     private int flashAlpha;
-    private long gameOverTime;
-    private int mouseY;
+    private long gameOverTick;
+    private volatile int mouseY;
+    private boolean upPressed, downPressed;
 
-    // Music
+    // Music: -Dflappy.music can name an MP3, a folder of MP3s or a playlist file
     private MusicPlayer musicPlayer;
     private boolean musicEnabled;
-    private static final String MUSIC_PATH = "C:\\Users\\Samsung\\OneDrive\\pasta_marco\\Projetos Java\\music.mp3";
+    private static final String MUSIC_PATH = System.getProperty("flappy.music",
+            "C:\\Users\\Samsung\\OneDrive\\pasta_marco\\Projetos Java\\music.mp3");
+
+    // Engine sound synthesized from the plane's velocity and throttle, toggled with E
+    private EngineSynth engine;
 
     public GamePanel() {
         setPreferredSize(new Dimension(WIDTH, HEIGHT));
@@ -58,93 +189,326 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         addMouseListener(this);
 
         random = new Random();
+        world = new GameWorld(random.nextLong());
         bestScore = 0;
+        try {
+            leaderboard = Leaderboard.open(Paths.get(LEADERBOARD_DIR));
+            bestScore = leaderboard.best();
+        } catch (IOException e) {
+            System.err.println("Placar indisponivel: " + e.getMessage());
+        }
         selectedOption = 0;
         controlMode = ControlMode.KEYBOARD;
         mouseY = HEIGHT / 2;
 
-        // Init clouds
-        cloudX = new double[5];
-        cloudY = new int[5];
-        cloudSpeed = new double[5];
-        for (int i = 0; i < 5; i++) {
-            cloudX[i] = random.nextInt(WIDTH + 100);
-            cloudY[i] = random.nextInt(200) + 20;
-            cloudSpeed[i] = 0.3 + random.nextDouble() * 0.5;
-        }
-
         // Init music
         musicEnabled = true;
-        if (new File(MUSIC_PATH).exists()) {
-            musicPlayer = new MusicPlayer(MUSIC_PATH);
+        List<File> tracks = Collections.emptyList();
+        try {
+            tracks = MusicPlayer.loadPlaylist(MUSIC_PATH);
+        } catch (IOException e) {
+            System.err.println("Erro ao ler lista de musicas: " + e.getMessage());
+        }
+        if (!tracks.isEmpty()) {
+            musicPlayer = new MusicPlayer(tracks);
             musicPlayer.play();
         } else {
-            System.out.println("Arquivo de musica nao encontrado: " + MUSIC_PATH);
+            System.out.println("Nenhuma musica encontrada em: " + MUSIC_PATH);
             musicEnabled = false;
         }
+        engine = new EngineSynth();
+
+        difficulty = new DifficultyWatcher(Paths.get(DifficultyProfile.DIR),
+                System.getProperty("flappy.difficulty", DifficultyProfile.DEFAULT.getName()));
+        devMode = Boolean.getBoolean("flappy.dev");
+        rewind = RewindBuffer.forSeconds(Double.parseDouble(System.getProperty("flappy.rewindSeconds", "10")));
+        if (devMode) difficulty.watch();
+
+        replayWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "replay-writer");
+            t.setDaemon(true);
+            return t;
+        });
+
+        int spectatorPort = Integer.getInteger("flappy.spectatorPort", 0);
+        if (spectatorPort > 0) {
+            try {
+                spectatorFeed = new SpectatorFeed(spectatorPort);
+            } catch (IOException e) {
+                System.err.println("Transmissao para espectador indisponivel: " + e.getMessage());
+            }
+        }
+
+        if (!"false".equals(System.getProperty("flappy.telemetry"))) {
+            try {
+                telemetry = new Telemetry(TelemetryLog.open(Paths.get(TELEMETRY_DIR)));
+            } catch (IOException e) {
+                System.err.println("Telemetria indisponivel: " + e.getMessage());
+            }
+        }
 
         resetGame();
+        publishFrame();
+
+        scheduler = new FrameScheduler(this);
+        governor = new QualityGovernor(Integer.getInteger("flappy.quality", -1));
+        simulation = new Thread(this::runSimulation, "simulation");
+        simulation.setDaemon(true);
+        simulation.start();
+    }
+
+    // Offscreen playback of a recorded run: no timer, input listeners or music
+    GamePanel(Replay replay) {
+        setSize(WIDTH, HEIGHT);
+        offscreen = true;
+        random = new Random();
+        world = new GameWorld(replay.getSeed());
+        controlMode = replay.isMouseMode() ? ControlMode.MOUSE : ControlMode.KEYBOARD;
+        mouseY = HEIGHT / 2;
+        world.setProfile(replay.getProfile());
+        world.start(replay.getSeed(), replay.isMouseMode());
+        state = GameState.PLAYING;
+        publishFrame();
+    }
 
-        gameTimer = new Timer(16, this); // ~60 FPS
-        gameTimer.start();
+    // Advances one tick as if input had been held, for offscreen playback
+    void replayTick(int input) {
+        if (controlMode == ControlMode.MOUSE) {
+            mouseY = input;
+        } else {
+            upPressed = (input & GameWorld.INPUT_UP) != 0;
+            downPressed = (input & GameWorld.INPUT_DOWN) != 0;
+        }
+        clock.step();
+        update();
+        publishFrame();
+    }
+
+    void paintFrame(Graphics2D g2d) {
+        paintComponent(g2d);
     }
 
     private void resetGame() {
-        plane = new Plane(80, HEIGHT / 2 - 12);
-        obstacles = new ArrayList<>();
-        score = 0;
-        obstacleSpeed = BASE_SPEED;
-        spawnTimer = 0;
-        spawnInterval = 95;
-        groundOffset = 0;
-        bgMountainOffset = 0;
-        bgCityOffset = 0;
+        if (telemetry != null) telemetry.end(world);
+        world.reset();
+        demo = false;
+        stressLevel = 0;
+        menuIdleTicks = 0;
         menuPlaneBob = 0;
         flashAlpha = 0;
-        gameOverTime = 0;
-        lastSpeedUpScore = 0;
+        gameOverTick = 0;
         state = GameState.MENU;
+        prepareGhosts();
+    }
+
+    // Reads the ghosts on the replay thread, after any replay still being saved, so that
+    // starting a run never lists or parses replay files
+    private void prepareGhosts() {
+        if (ghostMode && replayWriter != null) replayWriter.execute(this::loadGhosts);
+    }
+
+    private void loadGhosts() {
+        try {
+            preparedGhosts = GhostFleet.load(Paths.get(REPLAY_DIR), MAX_GHOSTS);
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar fantasmas: " + e.getMessage());
+        }
     }
 
     private void startGame() {
-        plane = new Plane(80, HEIGHT / 2 - 12);
-        plane.setMouseMode(controlMode == ControlMode.MOUSE);
-        if (controlMode == ControlMode.MOUSE) {
-            setCursor(Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR));
+        long seed = random.nextLong();
+        DifficultyProfile profile = difficulty.current();
+        ghosts = null;
+        endurance = enduranceMode && course != null;
+        if (ghostMode && !endurance) {
+            ghosts = preparedGhosts;
+            if (ghosts != null) {
+                ghosts.reset();
+                seed = ghosts.getSeed();
+                profile = ghosts.getProfile();
+            }
+        }
+        if (endurance) seed = course.getSeed();
+        world.setProfile(profile);
+        world.setCourse(endurance ? course : null);
+        world.start(seed, controlMode == ControlMode.MOUSE);
+        runTicks = 0;
+        practice = practiceMode;
+        if (practice) {
+            // Practice scores are not real runs: no replay, leaderboard or record
+            replay = null;
+            rewind.clear(ghosts);
+            rewind.save(world);
+        } else if (endurance) {
+            replay = null; // a replay only knows the seed, not the course
         } else {
-            setCursor(Cursor.getDefaultCursor());
+            replay = new Replay(seed, controlMode == ControlMode.MOUSE, profile);
         }
-        obstacles.clear();
-        score = 0;
-        obstacleSpeed = BASE_SPEED;
-        spawnTimer = 0;
+        setCursorLater(controlMode == ControlMode.MOUSE
+                ? Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR) : Cursor.getDefaultCursor());
+        upPressed = false;
+        downPressed = false;
         flashAlpha = 0;
-        lastSpeedUpScore = 0;
         state = GameState.PLAYING;
+        if (telemetry != null && !demo) telemetry.begin(world, practice);
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        update();
-        repaint();
+    private void startDemo() {
+        controlMode = ControlMode.KEYBOARD;
+        demo = true;
+        startGame();
+        replay = null;
+        practice = false;
     }
 
-    private void update() {
-        // Clouds always animate
-        for (int i = 0; i < cloudX.length; i++) {
-            cloudX[i] -= cloudSpeed[i];
-            if (cloudX[i] < -100) {
-                cloudX[i] = WIDTH + random.nextInt(50);
-                cloudY[i] = random.nextInt(180) + 20;
+    private void setCursorLater(Cursor cursor) {
+        SwingUtilities.invokeLater(() -> setCursor(cursor));
+    }
+
+    // Fixed-rate loop of the simulation thread
+    private void runSimulation() {
+        long tickNanos = (long) (GameClock.TICK_MILLIS * 1_000_000);
+        long next = System.nanoTime();
+        try {
+            while (true) {
+                if (engine != null && scheduler.isHidden()) engine.update(false, false, 0);
+                if (scheduler.awaitVisible()) {
+                    clock.resync();
+                    next = System.nanoTime();
+                }
+
+                boolean changed = drainInput();
+                int ticks = clock.advance(System.nanoTime());
+                long updateStart = System.nanoTime();
+                for (int i = 0; i < ticks; i++) {
+                    update();
+                }
+                countTicks(ticks, System.nanoTime() - updateStart);
+                updateEngine();
+                if (spectatorFeed != null) spectatorFeed.publish(world, state.ordinal());
+                scheduler.request(needsFullRate());
+                if ((changed || ticks > 0) && scheduler.shouldRender(clock.getTick())) {
+                    publishFrame();
+                    repaint();
+                }
+
+                next += tickNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (wait < -tickNanos * 5) {
+                    next = System.nanoTime(); // fell far behind; GameClock already dropped the backlog
+                }
             }
+        } catch (InterruptedException e) {
+            // shutting down
+        }
+    }
+
+    private void countTicks(int ticks, long nanos) {
+        statsTicks += ticks;
+        statsNanos += nanos;
+        long now = System.nanoTime();
+        if (now - statsStart < 1_000_000_000L) return;
+        tps = statsTicks;
+        tickMillis = statsTicks > 0 ? statsNanos / 1e6 / statsTicks : 0;
+        statsTicks = 0;
+        statsNanos = 0;
+        statsStart = now;
+        if (world.getStress() > 0) {
+            System.out.printf("Estresse %d/s: %d obstaculos, %d ticks/s (%.3f ms/tick), %d quadros/s (%.2f ms/quadro)%n",
+                    world.getStress(), world.getObstacleCount(), tps, tickMillis, scheduler.getFps(),
+                    governor.getAverageMillis());
         }
+    }
+
+    // Once per loop, so the sound also stops while paused
+    private void updateEngine() {
+        if (engine == null) return;
+        Plane plane = world.getPlane();
+        engine.update(state == GameState.PLAYING && clock.getScale() > 0, plane.isEngineOn(), plane.getVelocity());
+    }
+
+    private void cycleStress() {
+        if (state == GameState.PLAYING && !demo) return; // never throw away a real run
+        int level = (stressLevel + 1) % STRESS_RATES.length;
+        if (!demo || level == 0) resetGame();
+        if (level == 0) return;
+        if (!demo) startDemo();
+        stressLevel = level;
+        world.setStress(STRESS_RATES[level]);
+    }
+
+    private boolean drainInput() {
+        boolean any = inputSeen;
+        if (any) {
+            inputSeen = false;
+            lastInputTick = clock.getTick();
+        }
+        Runnable event;
+        while ((event = inputQueue.poll()) != null) {
+            event.run();
+            any = true;
+        }
+        return any;
+    }
+
+    private void publishFrame() {
+        RenderState f = frames.back();
+        int used = WorldSnapshot.capture(world, state.ordinal(), f.world);
+        if (used > f.world.length) {
+            f.world = WorldSnapshot.create((used - WorldSnapshot.HEADER) / WorldSnapshot.OBSTACLE_FIELDS * 2);
+            WorldSnapshot.capture(world, state.ordinal(), f.world);
+        }
+        f.ghostCount = ghosts != null ? ghosts.capture(f.ghosts) : 0;
+        f.tick = clock.getTick();
+        f.timeScale = clock.getScale();
+        f.state = state;
+        f.mouseMode = controlMode == ControlMode.MOUSE;
+        f.selectedOption = selectedOption;
+        f.ghostMode = ghostMode;
+        f.practiceMode = practiceMode;
+        f.practice = practice;
+        f.enduranceMode = enduranceMode;
+        f.endurance = endurance;
+        f.courseLength = endurance ? course.getCount() : 0;
+        f.canRewind = practice && rewind.size() > 0;
+        f.demo = demo;
+        f.musicEnabled = musicEnabled;
+        f.engineSound = engine != null && engine.isEnabled();
+        f.flashAlpha = flashAlpha;
+        f.bestScore = bestScore;
+        f.pointsPerLevel = world.getProfile().getPointsPerLevel();
+        f.stress = world.getStress();
+        f.obstacleTotal = world.getObstacleCount();
+        f.tps = tps;
+        f.tickMillis = tickMillis;
+        frames.publish();
+    }
+
+    private boolean needsFullRate() {
+        if (state == GameState.PLAYING || flashAlpha > 0) return true;
+        if (state == GameState.GAME_OVER) return false;
+        return scheduler.isWindowFocused() && clock.getTick() - lastInputTick < MENU_SMOOTH_TICKS;
+    }
+
+    // EDT: input of any kind keeps the menus at full rate
+    private void inputReceived() {
+        inputSeen = true;
+        if (scheduler != null) scheduler.wake();
+    }
+
+    private void update() {
+        // Clouds always animate
+        world.updateScenery();
 
         if (state == GameState.MENU || state == GameState.CONTROL_SELECT) {
             menuPlaneBob += 0.04f;
-            plane.setY(HEIGHT / 2 - 12 + Math.sin(menuPlaneBob) * 20);
-            groundOffset = (groundOffset + 2) % 30;
-            bgMountainOffset = (bgMountainOffset + 0.3) % WIDTH;
-            bgCityOffset = (bgCityOffset + 0.8) % WIDTH;
+            world.getPlane().setY(HEIGHT / 2 - 12 + Math.sin(menuPlaneBob) * 20);
+            world.scrollIdle();
+            if (state == GameState.MENU && ++menuIdleTicks >= DEMO_IDLE_TICKS) {
+                startDemo();
+            }
             return;
         }
 
@@ -154,101 +518,116 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         }
 
         // Playing
-        if (controlMode == ControlMode.MOUSE) {
-            plane.setTargetY(mouseY - plane.getPlaneHeight() / 2);
-        }
-        plane.update();
-        groundOffset = (groundOffset + obstacleSpeed) % 30;
-        bgMountainOffset = (bgMountainOffset + obstacleSpeed * 0.2) % WIDTH;
-        bgCityOffset = (bgCityOffset + obstacleSpeed * 0.5) % WIDTH;
-
-        // Spawn obstacles
-        spawnTimer++;
-        if (spawnTimer >= spawnInterval) {
-            int minGapY = 70;
-            int maxGapY = HEIGHT - GROUND_HEIGHT - 230;
-            int gapY = random.nextInt(maxGapY - minGapY) + minGapY;
-            obstacles.add(new Obstacle(WIDTH, gapY, HEIGHT, GROUND_HEIGHT));
-            spawnTimer = 0;
-        }
-
-        // Update obstacles
-        Iterator<Obstacle> it = obstacles.iterator();
-        while (it.hasNext()) {
-            Obstacle obs = it.next();
-            obs.update(obstacleSpeed);
-
-            if (!obs.isScored() && obs.getX() + obs.getWidth() < plane.getX()) {
-                obs.setScored(true);
-                score++;
-
-                // +2 velocidade a cada 10 pontos
-                int speedLevel = score / 10;
-                int expectedSpeed = BASE_SPEED + speedLevel * 2;
-                if (expectedSpeed != obstacleSpeed && expectedSpeed <= 15) {
-                    obstacleSpeed = expectedSpeed;
-                }
-
-                if (score % 10 == 0 && spawnInterval > 55) {
-                    spawnInterval -= 5;
-                }
-            }
-
-            if (obs.isOffScreen()) {
-                it.remove();
-            }
+        int input = demo ? autopilot.decide(world) : currentInput();
+        if (replay != null) replay.record(input);
+        if (ghosts != null) ghosts.update();
+        runTicks++;
+        long updateStart = System.nanoTime();
+        boolean crashed = world.update(input);
+        if (telemetry != null) telemetry.tick(world, input, System.nanoTime() - updateStart);
+        if (crashed) {
+            gameOver();
+        } else if (practice) {
+            rewind.save(world);
         }
-
-        checkCollisions();
     }
 
-    private void checkCollisions() {
-        Rectangle planeBounds = plane.getBounds();
-        int groundTop = HEIGHT - GROUND_HEIGHT;
-
-        // Ground and ceiling
-        if (plane.getY() + plane.getPlaneHeight() > groundTop || plane.getY() < 0) {
-            gameOver();
-            return;
-        }
+    // Back to a few seconds before the crash, straight into flight
+    private void rewindAndRetry() {
+        int undone = rewind.rewind(world, REWIND_TICKS);
+        if (undone < 0) return;
+        runTicks = runTicks - 1 - undone; // the crash tick was never saved
+        if (telemetry != null) telemetry.rewound(world, undone);
+        setCursorLater(controlMode == ControlMode.MOUSE
+                ? Cursor.getPredefinedCursor(Cursor.CROSSHAIR_CURSOR) : Cursor.getDefaultCursor());
+        flashAlpha = 0;
+        state = GameState.PLAYING;
+    }
 
-        // Obstacles
-        for (Obstacle obs : obstacles) {
-            if (planeBounds.intersects(obs.getTopBounds()) ||
-                planeBounds.intersects(obs.getBottomBounds())) {
-                gameOver();
-                return;
-            }
+    private int currentInput() {
+        if (controlMode == ControlMode.MOUSE) {
+            return mouseY;
         }
+        return (upPressed ? GameWorld.INPUT_UP : 0) | (downPressed ? GameWorld.INPUT_DOWN : 0);
     }
 
     private void gameOver() {
+        if (demo) {
+            resetGame();
+            return;
+        }
         state = GameState.GAME_OVER;
         flashAlpha = 200;
-        gameOverTime = System.currentTimeMillis();
-        setCursor(Cursor.getDefaultCursor());
-        if (score > bestScore) bestScore = score;
+        gameOverTick = clock.getTick();
+        setCursorLater(Cursor.getDefaultCursor());
+        if (telemetry != null && !practice) telemetry.end(world);
+        if (practice || endurance) return;
+        if (world.getScore() > bestScore) bestScore = world.getScore();
+        saveReplay();
+        if (leaderboard != null) {
+            int score = world.getScore();
+            leaderboard.submit(score, RANK_NAMES[rankLevel(score)],
+                    controlMode == ControlMode.MOUSE ? Leaderboard.MODE_MOUSE : Leaderboard.MODE_KEYBOARD,
+                    world.getSeed(), System.currentTimeMillis());
+        }
+    }
+
+    static int rankLevel(int score) {
+        int level = 0;
+        while (level + 1 < RANK_SCORES.length && score >= RANK_SCORES[level + 1]) level++;
+        return level;
+    }
+
+    private void saveReplay() {
+        if (replay == null || replayWriter == null) return;
+        Replay finished = replay;
+        finished.setScore(world.getScore());
+        replay = null;
+        String name = "run-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + "-" + finished.getScore() + ".fpr";
+        Path path = Paths.get(REPLAY_DIR, name);
+        boolean reloadGhosts = ghostMode;
+        replayWriter.execute(() -> {
+            try {
+                finished.write(path);
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar replay: " + e.getMessage());
+            }
+            // The new run may be the best one now
+            if (reloadGhosts) loadGhosts();
+        });
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long paintStart = System.nanoTime();
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        drawSky(g2d);
-        drawClouds(g2d);
-        drawMountains(g2d);
-        drawCityBackground(g2d);
-
-        for (Obstacle obs : obstacles) {
-            obs.draw(g2d);
+        if (frames.update()) {
+            frame = frames.front();
+            // Clouds are scenery only, so the view animates its own
+            view.catchUpScenery(frame.tick - viewTick, !offscreen);
+            WorldSnapshot.apply(frame.world, view);
+            viewClock.set(frame.tick, frame.timeScale);
+            viewTick = frame.tick;
         }
 
-        drawGround(g2d);
-        plane.draw(g2d);
+        RenderQuality quality = governor != null ? governor.quality() : RenderQuality.FULL;
+        Graphics2D scene = quality.sceneScale < 1 ? beginLowResScene(g2d, quality.sceneScale) : g2d;
+        view.drawScene(scene, viewClock, quality);
+        if (frame.state != GameState.MENU && frame.state != GameState.CONTROL_SELECT) {
+            GhostFleet.draw(scene, frame.ghosts, frame.ghostCount);
+        }
+        view.getPlane().draw(scene, quality.exhaustPuffs);
+        if (scene != g2d) {
+            scene.dispose();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(lowResScene, 0, 0, WIDTH, HEIGHT, null);
+        }
 
-        switch (state) {
+        switch (frame.state) {
             case MENU:
                 drawMenu(g2d);
                 break;
@@ -257,7 +636,7 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
                 break;
             case PLAYING:
                 drawHUD(g2d);
-                if (controlMode == ControlMode.MOUSE) {
+                if (frame.mouseMode) {
                     drawMouseGuide(g2d);
                 }
                 break;
@@ -267,91 +646,74 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
                 break;
         }
 
-        if (flashAlpha > 0) {
-            g2d.setColor(new Color(255, 255, 255, Math.min(flashAlpha, 255)));
+        if (frame.flashAlpha > 0) {
+            g2d.setColor(new Color(255, 255, 255, Math.min(frame.flashAlpha, 255)));
             g2d.fillRect(0, 0, WIDTH, HEIGHT);
         }
-    }
-
-    private void drawSky(Graphics2D g2d) {
-        GradientPaint sky = new GradientPaint(0, 0, new Color(25, 80, 150),
-                                               0, HEIGHT, new Color(120, 180, 240));
-        g2d.setPaint(sky);
-        g2d.fillRect(0, 0, WIDTH, HEIGHT);
-    }
 
-    private void drawClouds(Graphics2D g2d) {
-        for (int i = 0; i < cloudX.length; i++) {
-            g2d.setColor(new Color(255, 255, 255, 140));
-            int cx = (int) cloudX[i];
-            int cy = cloudY[i];
-            g2d.fillOval(cx, cy, 70, 25);
-            g2d.fillOval(cx + 15, cy - 10, 45, 25);
-            g2d.fillOval(cx + 35, cy, 55, 22);
+        if (frame.timeScale != 1) {
+            g2d.setFont(new Font("Arial", Font.BOLD, 12));
+            g2d.setColor(new Color(255, 255, 255, 200));
+            String scaleStr = frame.timeScale == 0 ? "PAUSA" : "TEMPO x" + frame.timeScale;
+            g2d.drawString(scaleStr, (WIDTH - g2d.getFontMetrics().stringWidth(scaleStr)) / 2, 20);
         }
-    }
 
-    private void drawMountains(Graphics2D g2d) {
-        int baseY = HEIGHT - GROUND_HEIGHT - 30;
-        g2d.setColor(new Color(60, 90, 60, 120));
-        int offset = (int) bgMountainOffset;
-        for (int i = -1; i < 5; i++) {
-            int mx = i * 140 - offset;
-            int[] xp = {mx, mx + 70, mx + 140};
-            int[] yp = {baseY, baseY - 90 - (i % 3) * 30, baseY};
-            g2d.fillPolygon(xp, yp, 3);
-        }
-        g2d.setColor(new Color(50, 80, 50, 100));
-        for (int i = -1; i < 5; i++) {
-            int mx = i * 120 - offset / 2 + 60;
-            int[] xp = {mx, mx + 60, mx + 120};
-            int[] yp = {baseY, baseY - 60 - (i % 2) * 25, baseY};
-            g2d.fillPolygon(xp, yp, 3);
+        if (scheduler != null) {
+            if (perfOverlay) drawPerfOverlay(g2d);
+            long nanos = System.nanoTime() - paintStart;
+            scheduler.frameDone(nanos);
+            governor.frameDone(nanos);
         }
     }
 
-    private void drawCityBackground(Graphics2D g2d) {
-        int baseY = HEIGHT - GROUND_HEIGHT;
-        int offset = (int) bgCityOffset;
-        int[] heights = {50, 80, 35, 65, 90, 45, 70, 55, 85, 40, 75, 60};
-
-        for (int i = -1; i < 12; i++) {
-            int bx = i * 50 - offset;
-            int h = heights[Math.abs(i) % heights.length];
-            g2d.setColor(new Color(40, 50, 70, 150));
-            g2d.fillRect(bx, baseY - h, 40, h);
-            g2d.setColor(new Color(255, 230, 140, 80));
-            for (int wy = baseY - h + 5; wy < baseY - 5; wy += 12) {
-                for (int wx = bx + 5; wx < bx + 35; wx += 10) {
-                    if (random.nextInt(10) < 7) {
-                        g2d.fillRect(wx, wy, 5, 6);
-                    }
-                }
-            }
+    // The world layers at a fraction of the resolution, scaled up afterwards; the HUD stays sharp
+    private Graphics2D beginLowResScene(Graphics2D g2d, double scale) {
+        int w = (int) Math.ceil(WIDTH * scale);
+        int h = (int) Math.ceil(HEIGHT * scale);
+        if (lowResScene == null || lowResScene.getWidth() != w || lowResScene.getHeight() != h) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            lowResScene = gc != null ? gc.createCompatibleImage(w, h)
+                    : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
         }
+        Graphics2D scene = lowResScene.createGraphics();
+        scene.setRenderingHints(g2d.getRenderingHints());
+        scene.scale(scale, scale);
+        return scene;
     }
 
-    private void drawGround(Graphics2D g2d) {
-        int groundY = HEIGHT - GROUND_HEIGHT;
-
-        g2d.setColor(new Color(70, 75, 80));
-        g2d.fillRect(0, groundY, WIDTH, GROUND_HEIGHT);
-
-        g2d.setColor(new Color(200, 200, 200));
-        g2d.setStroke(new BasicStroke(3));
-        for (int i = -groundOffset; i < WIDTH + 30; i += 30) {
-            g2d.fillRect(i, groundY + GROUND_HEIGHT / 2 - 2, 15, 4);
+    private void drawPerfOverlay(Graphics2D g2d) {
+        String[] lines = {
+            "Quadros: " + scheduler.getFps() + " qps (" + scheduler.getMode() + ")",
+            String.format("Custo: %.2f ms/quadro", scheduler.getAverageFrameMillis()),
+            String.format("Economia: %d quadros, ~%.1f s CPU", scheduler.getFramesAvoided(),
+                    scheduler.getCpuSavedSeconds()),
+            String.format("Qualidade: %s (%d), media %.2f ms", governor.quality().name,
+                    governor.quality().tier, governor.getAverageMillis())
+        };
+        g2d.setFont(new Font("Monospaced", Font.PLAIN, 11));
+        g2d.setColor(new Color(0, 0, 0, 150));
+        g2d.fillRect(5, HEIGHT - 74, 270, 64);
+        g2d.setColor(new Color(120, 255, 120));
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], 10, HEIGHT - 59 + i * 14);
         }
+    }
 
-        g2d.setColor(new Color(255, 200, 50));
-        g2d.fillRect(0, groundY, WIDTH, 3);
-        g2d.fillRect(0, groundY + GROUND_HEIGHT - 3, WIDTH, 3);
-
-        g2d.setStroke(new BasicStroke(1));
-        for (int i = -groundOffset; i < WIDTH + 30; i += 60) {
-            g2d.setColor(new Color(50, 255, 50, 180));
-            g2d.fillOval(i, groundY + 6, 6, 6);
-            g2d.fillOval(i, groundY + GROUND_HEIGHT - 12, 6, 6);
+    private void drawStressStats(Graphics2D g2d) {
+        String[] lines = {
+            "ESTRESSE: " + frame.stress + " obstaculos/s (F6 muda)",
+            String.format("Obstaculos: %d, na tela %d, cenario %d", frame.obstacleTotal,
+                    frame.world[WorldSnapshot.OBSTACLES], view.getPropCount()),
+            String.format("Simulacao: %d ticks/s, %.3f ms/tick", frame.tps, frame.tickMillis),
+            String.format("Desenho: %d qps, %.2f ms/quadro (%s)", scheduler.getFps(),
+                    governor.getAverageMillis(), governor.quality().name)
+        };
+        g2d.setFont(new Font("Monospaced", Font.BOLD, 11));
+        g2d.setColor(new Color(0, 0, 0, 170));
+        g2d.fillRect(60, 95, 380, 64);
+        g2d.setColor(new Color(255, 200, 80));
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], 66, 110 + i * 14);
         }
     }
 
@@ -384,21 +746,28 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
 
         // Start prompt
         g2d.setFont(new Font("Arial", Font.BOLD, 22));
-        int alpha = (int)(180 + 75 * Math.sin(menuPlaneBob * 2.5));
+        int alpha = (int)(180 + 75 * viewClock.pulse());
         g2d.setColor(new Color(255, 255, 100, alpha));
         String start = "Pressione ENTER para voar!";
         fm = g2d.getFontMetrics();
         g2d.drawString(start, (WIDTH - fm.stringWidth(start)) / 2, HEIGHT / 2 + 80);
 
         // Best score
-        if (bestScore > 0) {
+        if (frame.bestScore > 0) {
             g2d.setFont(new Font("Arial", Font.BOLD, 16));
             g2d.setColor(new Color(255, 215, 0));
-            String best = "Recorde: " + bestScore;
+            String best = "Recorde: " + frame.bestScore;
             fm = g2d.getFontMetrics();
             g2d.drawString(best, (WIDTH - fm.stringWidth(best)) / 2, HEIGHT / 2 + 115);
         }
 
+        // Demo hint
+        g2d.setFont(new Font("Arial", Font.PLAIN, 13));
+        g2d.setColor(new Color(200, 220, 255, 160));
+        String demoHint = "D: demonstracao do piloto automatico";
+        fm = g2d.getFontMetrics();
+        g2d.drawString(demoHint, (WIDTH - fm.stringWidth(demoHint)) / 2, HEIGHT / 2 + 145);
+
         // Music indicator
         drawMusicIndicator(g2d);
     }
@@ -409,9 +778,20 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         g2d.setColor(new Color(0, 0, 0, 100));
         g2d.fillRect(0, 0, WIDTH, HEIGHT);
 
+        long key = frame.selectedOption | (frame.ghostMode ? 2 : 0) | (frame.practiceMode ? 4 : 0)
+                | (frame.enduranceMode ? 8 : 0);
+        Graphics2D g = controlOverlay.begin(g2d, key, 0);
+        if (g != null) {
+            paintControlSelect(g);
+            g.dispose();
+        }
+        controlOverlay.draw(g2d);
+    }
+
+    private void paintControlSelect(Graphics2D g2d) {
         // Panel
-        int panelW = 380;
-        int panelH = 340;
+        int panelW = CONTROL_PANEL_W;
+        int panelH = CONTROL_PANEL_H;
         int panelX = (WIDTH - panelW) / 2;
         int panelY = (HEIGHT - panelH) / 2 - 20;
 
@@ -442,16 +822,29 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         fm = g2d.getFontMetrics();
         g2d.drawString(inst, (WIDTH - fm.stringWidth(inst)) / 2, panelY + 78);
 
+        // Ghost racing toggle
+        g2d.setFont(new Font("Arial", Font.BOLD, 14));
+        g2d.setColor(frame.ghostMode ? new Color(150, 230, 255) : new Color(150, 160, 180));
+        String ghost = "G: corrida contra fantasmas " + (frame.ghostMode ? "ON" : "OFF");
+        fm = g2d.getFontMetrics();
+        g2d.drawString(ghost, (WIDTH - fm.stringWidth(ghost)) / 2, panelY + panelH + 25);
+        g2d.setColor(frame.practiceMode ? new Color(150, 255, 170) : new Color(150, 160, 180));
+        String practiceStr = "P: treino com volta no tempo " + (frame.practiceMode ? "ON" : "OFF");
+        g2d.drawString(practiceStr, (WIDTH - fm.stringWidth(practiceStr)) / 2, panelY + panelH + 45);
+        g2d.setColor(frame.enduranceMode ? new Color(255, 200, 120) : new Color(150, 160, 180));
+        String enduranceStr = "C: percurso de resistencia " + (frame.enduranceMode ? "ON" : "OFF");
+        g2d.drawString(enduranceStr, (WIDTH - fm.stringWidth(enduranceStr)) / 2, panelY + panelH + 65);
+
         // Option 1: Keyboard
         drawControlOption(g2d, panelX + 25, panelY + 95, panelW - 50, 100,
-                selectedOption == 0,
+                frame.selectedOption == 0,
                 "TECLADO", "W / S",
                 "Use W para subir e S para descer.",
                 "Controle preciso com as teclas.");
 
         // Option 2: Mouse
         drawControlOption(g2d, panelX + 25, panelY + 210, panelW - 50, 100,
-                selectedOption == 1,
+                frame.selectedOption == 1,
                 "MOUSE", "\u2191\u2193",
                 "O aviao segue a posicao do mouse.",
                 "Controle suave e intuitivo.");
@@ -523,6 +916,7 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         g2d.drawLine(0, mouseY, WIDTH, mouseY);
 
         // Small crosshair at plane X
+        Plane plane = view.getPlane();
         int cx = (int) plane.getX() + plane.getPlaneWidth() / 2;
         g2d.setColor(new Color(255, 255, 255, 60));
         g2d.setStroke(new BasicStroke(1));
@@ -530,6 +924,7 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
     }
 
     private void drawHUD(Graphics2D g2d) {
+        int score = view.getScore();
         // Score background
         g2d.setColor(new Color(0, 0, 0, 80));
         g2d.fillRoundRect(WIDTH / 2 - 40, 10, 80, 50, 10, 10);
@@ -551,23 +946,52 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         // Speed indicator
         g2d.setFont(new Font("Arial", Font.PLAIN, 12));
         g2d.setColor(new Color(255, 255, 255, 150));
-        g2d.drawString("VEL: " + obstacleSpeed, 10, 25);
+        g2d.drawString("VEL: " + view.getObstacleSpeed(), 10, 25);
 
         // Altitude indicator
-        int alt = (int)((HEIGHT - GROUND_HEIGHT - plane.getY()) / 5);
+        int alt = (int)((HEIGHT - GROUND_HEIGHT - view.getPlane().getY()) / 5);
         g2d.drawString("ALT: " + Math.max(0, alt) + "m", 10, 42);
 
         // Control mode indicator
-        String modeStr = controlMode == ControlMode.MOUSE ? "MOUSE" : "TECLADO";
+        String modeStr = frame.mouseMode ? "MOUSE" : "TECLADO";
         g2d.setFont(new Font("Arial", Font.PLAIN, 11));
         g2d.setColor(new Color(255, 255, 255, 100));
         fm = g2d.getFontMetrics();
         g2d.drawString(modeStr, WIDTH - fm.stringWidth(modeStr) - 10, 25);
 
-        // Next speed up indicator
-        int nextSpeedAt = ((score / 10) + 1) * 10;
-        g2d.setColor(new Color(255, 200, 50, 120));
-        g2d.drawString("+VEL em: " + (nextSpeedAt - score) + " pts", WIDTH - fm.stringWidth("+VEL em: 00 pts") - 10, 42);
+        // Next speed up indicator, or how far along the course an endurance run is
+        if (frame.endurance) {
+            g2d.setColor(new Color(255, 200, 120, 160));
+            long lap = score / frame.courseLength + 1;
+            String progress = String.format("%.4f%% de %,d", score % frame.courseLength * 100.0 / frame.courseLength,
+                    frame.courseLength);
+            if (lap > 1) progress = "volta " + lap + ", " + progress;
+            g2d.drawString(progress, WIDTH - fm.stringWidth(progress) - 10, 42);
+        } else {
+            int pointsPerLevel = frame.pointsPerLevel;
+            int nextSpeedAt = ((score / pointsPerLevel) + 1) * pointsPerLevel;
+            g2d.setColor(new Color(255, 200, 50, 120));
+            g2d.drawString("+VEL em: " + (nextSpeedAt - score) + " pts", WIDTH - fm.stringWidth("+VEL em: 00 pts") - 10, 42);
+        }
+
+        if (frame.demo) {
+            g2d.setFont(new Font("Arial", Font.BOLD, 14));
+            g2d.setColor(new Color(255, 255, 100, 200));
+            String demoStr = "PILOTO AUTOMATICO - qualquer tecla para sair";
+            fm = g2d.getFontMetrics();
+            g2d.drawString(demoStr, (WIDTH - fm.stringWidth(demoStr)) / 2, 85);
+        }
+        if (frame.stress > 0 && scheduler != null) drawStressStats(g2d);
+        if (frame.practice) {
+            g2d.setFont(new Font("Arial", Font.BOLD, 12));
+            g2d.setColor(new Color(150, 255, 170, 200));
+            g2d.drawString("TREINO", 10, 59);
+        }
+        if (frame.endurance) {
+            g2d.setFont(new Font("Arial", Font.BOLD, 12));
+            g2d.setColor(new Color(255, 200, 120, 200));
+            g2d.drawString("RESISTENCIA", 10, frame.practice ? 74 : 59);
+        }
 
         // Music indicator
         drawMusicIndicator(g2d);
@@ -577,8 +1001,19 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         g2d.setColor(new Color(0, 0, 0, 140));
         g2d.fillRect(0, 0, WIDTH, HEIGHT);
 
-        int panelW = 300;
-        int panelH = 260;
+        long scores = (long) view.getScore() << 32 | (frame.bestScore & 0xFFFFFFFFL);
+        Graphics2D g = gameOverOverlay.begin(g2d, scores, view.getObstacleSpeed() * 2L + (frame.canRewind ? 1 : 0));
+        if (g != null) {
+            paintGameOver(g);
+            g.dispose();
+        }
+        gameOverOverlay.draw(g2d);
+    }
+
+    private void paintGameOver(Graphics2D g2d) {
+        int score = view.getScore();
+        int panelW = GAME_OVER_PANEL_W;
+        int panelH = GAME_OVER_PANEL_H;
         int panelX = (WIDTH - panelW) / 2;
         int panelY = (HEIGHT - panelH) / 2 - 20;
 
@@ -611,25 +1046,21 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         // Max speed reached
         g2d.setFont(new Font("Arial", Font.PLAIN, 16));
         g2d.setColor(new Color(180, 200, 230));
-        String spd = "Vel. Max: " + obstacleSpeed;
+        String spd = "Vel. Max: " + view.getObstacleSpeed();
         fm = g2d.getFontMetrics();
         g2d.drawString(spd, (WIDTH - fm.stringWidth(spd)) / 2, panelY + 130);
 
         // Best
         g2d.setFont(new Font("Arial", Font.BOLD, 24));
         g2d.setColor(new Color(255, 215, 0));
-        String best = "Recorde: " + bestScore;
+        String best = "Recorde: " + frame.bestScore;
         fm = g2d.getFontMetrics();
         g2d.drawString(best, (WIDTH - fm.stringWidth(best)) / 2, panelY + 162);
 
         // Rank
-        String rank;
-        Color rankColor;
-        if (score >= 40) { rank = "ACE PILOTO"; rankColor = new Color(255, 215, 0); }
-        else if (score >= 25) { rank = "CAPITAO"; rankColor = new Color(192, 192, 192); }
-        else if (score >= 15) { rank = "TENENTE"; rankColor = new Color(205, 127, 50); }
-        else if (score >= 5) { rank = "CADETE"; rankColor = new Color(100, 180, 100); }
-        else { rank = "NOVATO"; rankColor = new Color(150, 150, 150); }
+        int level = rankLevel(score);
+        String rank = RANK_NAMES[level];
+        Color rankColor = RANK_COLORS[level];
 
         g2d.setColor(rankColor.darker());
         g2d.fillRoundRect(panelX + panelW / 2 - 60, panelY + 178, 120, 30, 8, 8);
@@ -652,7 +1083,7 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         g2d.drawLine(panelX + panelW / 2 + 65, wingY, panelX + panelW / 2 + 85, wingY + 5);
 
         // New best
-        if (score == bestScore && score > 0) {
+        if (score == frame.bestScore && score > 0) {
             g2d.setFont(new Font("Arial", Font.BOLD, 14));
             g2d.setColor(new Color(255, 100, 100));
             String newBest = "NOVO RECORDE!";
@@ -666,6 +1097,11 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         String restart = "ENTER para decolar novamente";
         fm = g2d.getFontMetrics();
         g2d.drawString(restart, (WIDTH - fm.stringWidth(restart)) / 2, panelY + panelH + 35);
+        if (frame.canRewind) {
+            g2d.setColor(new Color(150, 255, 170, 220));
+            String retry = "R para voltar 3 s e tentar de novo";
+            g2d.drawString(retry, (WIDTH - fm.stringWidth(retry)) / 2, panelY + panelH + 60);
+        }
     }
 
     private void drawKey(Graphics2D g2d, int x, int y, String key, String desc) {
@@ -694,17 +1130,25 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
 
         g2d.setFont(new Font("Arial", Font.PLAIN, 11));
 
-        if (musicEnabled) {
+        if (frame.musicEnabled) {
             g2d.setColor(new Color(100, 255, 100, 180));
             g2d.drawString("M: ON", ix, iy);
             // Animated note
-            double noteOffset = Math.sin(System.currentTimeMillis() * 0.005) * 3;
+            double noteOffset = viewClock.blink() * 3;
             g2d.setFont(new Font("Arial", Font.PLAIN, 13));
             g2d.drawString("\u266A", ix + 38, iy - 1 + (int) noteOffset);
         } else {
             g2d.setColor(new Color(255, 100, 100, 180));
             g2d.drawString("M: OFF", ix, iy);
         }
+
+        if (engine == null) return;
+        ix -= 60;
+        g2d.setColor(new Color(0, 0, 0, 60));
+        g2d.fillRoundRect(ix - 5, iy - 12, 55, 18, 6, 6);
+        g2d.setFont(new Font("Arial", Font.PLAIN, 11));
+        g2d.setColor(frame.engineSound ? new Color(100, 255, 100, 180) : new Color(255, 100, 100, 180));
+        g2d.drawString(frame.engineSound ? "E: ON" : "E: OFF", ix, iy);
     }
 
     // ==================== INPUT ====================
@@ -712,26 +1156,84 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         if (musicPlayer == null) return;
         if (musicEnabled) {
             musicPlayer.stop();
-            musicEnabled = false;
         } else {
-            musicPlayer = new MusicPlayer(MUSIC_PATH);
             musicPlayer.play();
-            musicEnabled = true;
         }
+        musicEnabled = !musicEnabled;
     }
 
+    private void toggleEndurance() {
+        if (!enduranceMode && course == null) {
+            try {
+                course = CourseFile.open(Paths.get(COURSE_PATH));
+            } catch (IOException e) {
+                System.out.println("Percurso indisponivel (" + e.getMessage() + "); gere um com CourseGenerator");
+                return;
+            }
+        }
+        enduranceMode = !enduranceMode;
+    }
+
+    private void changeTimeScale(int direction) {
+        int i = 0;
+        while (i < TIME_SCALES.length - 1 && TIME_SCALES[i] < clock.getScale()) i++;
+        i = Math.max(0, Math.min(TIME_SCALES.length - 1, i + direction));
+        clock.setScale(TIME_SCALES[i]);
+    }
+
+    // Listeners run on the EDT and only queue the event for the simulation thread
     @Override
     public void keyPressed(KeyEvent e) {
         int key = e.getKeyCode();
+        inputReceived();
+        if (key == KeyEvent.VK_F3) {
+            perfOverlay = !perfOverlay;
+            repaint();
+            return;
+        }
+        inputQueue.add(() -> handleKeyPressed(key));
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        int key = e.getKeyCode();
+        inputQueue.add(() -> handleKeyReleased(key));
+    }
 
+    private void handleKeyPressed(int key) {
         // M to toggle music works in any state
         if (key == KeyEvent.VK_M) {
             toggleMusic();
             return;
         }
 
+        // E toggles the engine sound, also in any state
+        if (key == KeyEvent.VK_E) {
+            if (engine != null) engine.setEnabled(!engine.isEnabled());
+            return;
+        }
+
+        if (key == KeyEvent.VK_F6) {
+            cycleStress();
+            return;
+        }
+
+        if (devMode && (key == KeyEvent.VK_PAGE_UP || key == KeyEvent.VK_PAGE_DOWN)) {
+            changeTimeScale(key == KeyEvent.VK_PAGE_UP ? 1 : -1);
+            return;
+        }
+
+        menuIdleTicks = 0;
+        if (demo) {
+            resetGame();
+            return;
+        }
+
         switch (state) {
             case MENU:
+                if (key == KeyEvent.VK_D) {
+                    startDemo();
+                }
                 if (key == KeyEvent.VK_ENTER || key == KeyEvent.VK_SPACE) {
                     state = GameState.CONTROL_SELECT;
                     selectedOption = 0;
@@ -749,6 +1251,16 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
                     controlMode = selectedOption == 0 ? ControlMode.KEYBOARD : ControlMode.MOUSE;
                     startGame();
                 }
+                if (key == KeyEvent.VK_G) {
+                    ghostMode = !ghostMode;
+                    prepareGhosts();
+                }
+                if (key == KeyEvent.VK_P) {
+                    practiceMode = !practiceMode;
+                }
+                if (key == KeyEvent.VK_C) {
+                    toggleEndurance();
+                }
                 if (key == KeyEvent.VK_ESCAPE) {
                     state = GameState.MENU;
                 }
@@ -757,16 +1269,20 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
             case PLAYING:
                 if (controlMode == ControlMode.KEYBOARD) {
                     if (key == KeyEvent.VK_W || key == KeyEvent.VK_UP) {
-                        plane.setMovingUp(true);
+                        upPressed = true;
                     }
                     if (key == KeyEvent.VK_S || key == KeyEvent.VK_DOWN) {
-                        plane.setMovingDown(true);
+                        downPressed = true;
                     }
                 }
                 break;
 
             case GAME_OVER:
-                if (System.currentTimeMillis() - gameOverTime > 500) {
+                if (practice && (key == KeyEvent.VK_R || key == KeyEvent.VK_BACK_SPACE)) {
+                    rewindAndRetry();
+                    break;
+                }
+                if (clock.getTick() - gameOverTick > RESTART_LOCK_TICKS) {
                     if (key == KeyEvent.VK_ENTER || key == KeyEvent.VK_SPACE) {
                         resetGame();
                     }
@@ -775,14 +1291,12 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
         }
     }
 
-    @Override
-    public void keyReleased(KeyEvent e) {
-        int key = e.getKeyCode();
+    private void handleKeyReleased(int key) {
         if (key == KeyEvent.VK_W || key == KeyEvent.VK_UP) {
-            plane.setMovingUp(false);
+            upPressed = false;
         }
         if (key == KeyEvent.VK_S || key == KeyEvent.VK_DOWN) {
-            plane.setMovingDown(false);
+            downPressed = false;
         }
     }
 
@@ -793,15 +1307,24 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
     @Override
     public void mouseMoved(MouseEvent e) {
         mouseY = e.getY();
+        inputReceived();
     }
 
     @Override
     public void mouseDragged(MouseEvent e) {
         mouseY = e.getY();
+        inputReceived();
     }
 
     @Override
     public void mouseClicked(MouseEvent e) {
+        inputReceived();
+        int mx = e.getX();
+        int my = e.getY();
+        inputQueue.add(() -> handleClick(mx, my));
+    }
+
+    private void handleClick(int mx, int my) {
         if (state == GameState.CONTROL_SELECT) {
             // Click on options to select
             int panelW = 380;
@@ -812,8 +1335,6 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener, Mo
             int optY1 = panelY + 95;
             int optY2 = panelY + 210;
             int optH = 100;
-            int mx = e.getX();
-            int my = e.getY();
 
             if (my >= optY1 && my <= optY1 + optH && mx >= panelX + 25 && mx <= panelX + panelW - 25) {
                 selectedOption = 0;
@@ -0,0 +1,605 @@
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+
+// Simulation state and scene drawing, free of Swing so it can run headless.
+public class GameWorld implements FlightView {
+    public static final int WIDTH = 500;
+    public static final int HEIGHT = 600;
+    public static final int GROUND_HEIGHT = 60;
+
+    // Keyboard input bits; in mouse mode the input is the mouse Y instead
+    public static final int INPUT_UP = 1;
+    public static final int INPUT_DOWN = 2;
+
+    // What the plane hit
+    public static final int CRASH_NONE = 0;
+    public static final int CRASH_GROUND = 1;
+    public static final int CRASH_CEILING = 2;
+    public static final int CRASH_OBSTACLE_TOP = 3;
+    public static final int CRASH_OBSTACLE_BOTTOM = 4;
+
+    private static final int PLANE_X = 80;
+    private static final int PLANE_Y = HEIGHT / 2 - 12;
+
+    // Stress mode spreads its extra obstacles over this much course ahead
+    public static final int STRESS_SPAN = WIDTH * 4;
+
+    // Most ticks of scenery a live view catches up in one paint, see catchUpScenery()
+    public static final int MAX_SCENERY_CATCH_UP = 60;
+
+    // Scene paints, shared by every frame and every world
+    private static final GradientPaint SKY = new GradientPaint(0, 0, new Color(25, 80, 150),
+                                                               0, HEIGHT, new Color(120, 180, 240));
+    private static final Color CLOUD = new Color(255, 255, 255, 140);
+    private static final Color BIRD_COLOR = new Color(30, 35, 45);
+    private static final Color BALLOON_COLOR = new Color(230, 120, 60, 200);
+    private static final Color FAR_MOUNTAIN = new Color(60, 90, 60, 120);
+    private static final Color NEAR_MOUNTAIN = new Color(50, 80, 50, 100);
+    private static final Color CITY = new Color(40, 50, 70, 150);
+    private static final Color CITY_WINDOW = new Color(255, 230, 140, 80);
+    private static final Color GROUND = new Color(70, 75, 80);
+    private static final Color GROUND_STRIPE = new Color(200, 200, 200);
+    private static final Color GROUND_EDGE = new Color(255, 200, 50);
+    private static final Color GROUND_LIGHT = new Color(50, 255, 50, 180);
+    private static final BasicStroke THICK = new BasicStroke(3);
+    private static final BasicStroke THIN = new BasicStroke(1);
+    private static final int[] CITY_HEIGHTS = {50, 80, 35, 65, 90, 45, 70, 55, 85, 40, 75, 60};
+
+    private DifficultyProfile profile = DifficultyProfile.DEFAULT;
+    private final Plane plane = new Plane(PLANE_X, PLANE_Y);
+    private SimRandom random;
+    private long seed;
+    private boolean mouseMode;
+    private boolean crashed;
+    private int crashCause;
+    private int score;
+    private int obstacleSpeed;
+    private int spawnTimer;
+    private int spawnInterval;
+    private int groundOffset;
+    private int lastSpeedUpScore;
+
+    // Endurance mode: obstacles come from a course file instead of the seeded generator, and
+    // the course sets the speed. The next course obstacle waits at courseNextX, moving with the
+    // others, and enters when it reaches the spawn line.
+    private CourseFile course;
+    private long courseIndex;
+    private int courseNextX;
+
+    // Obstacles as parallel arrays in spawn order, so a tick is one pass over primitives
+    private int[] obsX = new int[16];
+    private int[] obsGapY = new int[16];
+    private int[] obsGapSize = new int[16];
+    private boolean[] obsScored = new boolean[16];
+    private int obsCount;
+    private int[] visible = new int[16]; // drawing scratch
+    private final int[] polygonX = new int[3]; // drawing scratch
+    private final int[] polygonY = new int[3];
+
+    // Stress mode: extra obstacles per second that never score, and a plane that cannot crash
+    private int stressRate;
+    private double stressCarry;
+    private final Random stressRandom = new Random();
+
+    // Parallax backgrounds
+    private double bgMountainOffset;
+    private double bgCityOffset;
+
+    // Clouds use their own generator so scenery never shifts the obstacle sequence
+    private Random sceneryRandom;
+    private double[] cloudX;
+    private int[] cloudY;
+    private double[] cloudSpeed;
+
+    // Scenery props (birds and balloons) are only spawned on request, by the stress mode
+    private static final byte BIRD = 0;
+    private static final byte BALLOON = 1;
+    private float[] propX = new float[64];
+    private int[] propY = new int[64];
+    private float[] propSpeed = new float[64];
+    private byte[] propKind = new byte[64];
+    private int propCount;
+    private int propRate;
+    private double propCarry;
+    private final Random propRandom = new Random();
+
+    public GameWorld(long seed) {
+        this.seed = seed;
+        random = new SimRandom(seed);
+        sceneryRandom = new Random(seed);
+
+        cloudX = new double[5];
+        cloudY = new int[5];
+        cloudSpeed = new double[5];
+        for (int i = 0; i < 5; i++) {
+            cloudX[i] = sceneryRandom.nextInt(WIDTH + 100);
+            cloudY[i] = sceneryRandom.nextInt(200) + 20;
+            cloudSpeed[i] = 0.3 + sceneryRandom.nextDouble() * 0.5;
+        }
+
+        reset();
+    }
+
+    public void reset() {
+        plane.reset(PLANE_X, PLANE_Y);
+        obsCount = 0;
+        stressRate = 0;
+        score = 0;
+        obstacleSpeed = profile.getBaseSpeed();
+        spawnTimer = 0;
+        spawnInterval = profile.getSpawnInterval();
+        groundOffset = 0;
+        bgMountainOffset = 0;
+        bgCityOffset = 0;
+        lastSpeedUpScore = 0;
+        crashed = false;
+        crashCause = CRASH_NONE;
+    }
+
+    public void start(long seed, boolean mouseMode) {
+        this.seed = seed;
+        this.mouseMode = mouseMode;
+        random = new SimRandom(seed);
+        plane.reset(PLANE_X, PLANE_Y);
+        plane.setMouseMode(mouseMode);
+        obsCount = 0;
+        score = 0;
+        obstacleSpeed = profile.getBaseSpeed();
+        if (course != null) {
+            obstacleSpeed = course.getStartSpeed();
+            courseIndex = 0;
+            course.read(0);
+            courseNextX = WIDTH + Math.max(1, course.getSpacing());
+        }
+        spawnTimer = 0;
+        spawnInterval = profile.getSpawnInterval();
+        lastSpeedUpScore = 0;
+        crashed = false;
+        crashCause = CRASH_NONE;
+    }
+
+    // Brings a view's clouds and props forward by ticks. Live windows pass capped = true, so a
+    // paint after a long stall skips ahead instead of replaying minutes of scenery; offscreen
+    // playback must not skip, or the same tick would look different depending on where it starts.
+    public void catchUpScenery(long ticks, boolean capped) {
+        for (long t = capped ? Math.min(ticks, MAX_SCENERY_CATCH_UP) : ticks; t > 0; t--) updateScenery();
+    }
+
+    // Clouds and props, which move on their own whatever the game state
+    public void updateScenery() {
+        for (int i = 0; i < cloudX.length; i++) {
+            cloudX[i] -= cloudSpeed[i];
+            if (cloudX[i] < -100) {
+                cloudX[i] = WIDTH + sceneryRandom.nextInt(50);
+                cloudY[i] = sceneryRandom.nextInt(180) + 20;
+            }
+        }
+
+        propCarry += propRate * GameClock.TICK_MILLIS / 1000.0;
+        for (; propCarry >= 1; propCarry--) spawnProp();
+        int kept = 0;
+        for (int i = 0; i < propCount; i++) {
+            float x = propX[i] - propSpeed[i];
+            if (x < -30) continue;
+            propX[kept] = x;
+            propY[kept] = propY[i];
+            propSpeed[kept] = propSpeed[i];
+            propKind[kept] = propKind[i];
+            kept++;
+        }
+        propCount = kept;
+    }
+
+    private void spawnProp() {
+        if (propCount == propX.length) {
+            int n = propCount * 2;
+            propX = Arrays.copyOf(propX, n);
+            propY = Arrays.copyOf(propY, n);
+            propSpeed = Arrays.copyOf(propSpeed, n);
+            propKind = Arrays.copyOf(propKind, n);
+        }
+        boolean bird = propRandom.nextInt(3) != 0;
+        propX[propCount] = WIDTH + propRandom.nextInt(WIDTH / 2);
+        propY[propCount] = 20 + propRandom.nextInt(HEIGHT - GROUND_HEIGHT - 80);
+        propSpeed[propCount] = bird ? 1.5f + propRandom.nextFloat() * 2 : 0.8f + propRandom.nextFloat() * 0.5f;
+        propKind[propCount] = bird ? BIRD : BALLOON;
+        propCount++;
+    }
+
+    // Menu scrolling while nobody is flying
+    public void scrollIdle() {
+        groundOffset = (groundOffset + 2) % 30;
+        bgMountainOffset = (bgMountainOffset + 0.3) % WIDTH;
+        bgCityOffset = (bgCityOffset + 0.8) % WIDTH;
+    }
+
+    // One playing tick. Returns true on the tick the plane crashes.
+    public boolean update(int input) {
+        if (crashed) return false;
+
+        if (mouseMode) {
+            plane.setTargetY(input - plane.getPlaneHeight() / 2);
+        } else {
+            plane.setMovingUp((input & INPUT_UP) != 0);
+            plane.setMovingDown((input & INPUT_DOWN) != 0);
+        }
+        plane.update();
+        advanceCourse();
+
+        crashCause = crashCause(plane);
+        if (stressRate > 0) crashCause = CRASH_NONE; // stress runs measure the engine, not the pilot
+        crashed = crashCause != CRASH_NONE;
+        return crashed;
+    }
+
+    // Scrolls, spawns, scores and drops obstacles for one tick. Every plane flies at PLANE_X,
+    // so the score is the same for any plane still flying; split screen calls this once for
+    // all of its planes.
+    public void advanceCourse() {
+        groundOffset = (groundOffset + obstacleSpeed) % 30;
+        bgMountainOffset = (bgMountainOffset + obstacleSpeed * 0.2) % WIDTH;
+        bgCityOffset = (bgCityOffset + obstacleSpeed * 0.5) % WIDTH;
+
+        // Spawn obstacles
+        spawnTimer++;
+        int minGapY = profile.getMinGapY();
+        int maxGapY = profile.getMaxGapY();
+        if (course != null) {
+            spawnFromCourse();
+        } else if (spawnTimer >= spawnInterval) {
+            int gapY = random.nextInt(maxGapY - minGapY) + minGapY;
+            addObstacle(WIDTH, gapY, profile.getGapSize());
+            spawnTimer = 0;
+        }
+        stressCarry += stressRate * GameClock.TICK_MILLIS / 1000.0;
+        for (; stressCarry >= 1; stressCarry--) {
+            // Own generator, so the real course stays the same
+            addObstacle(WIDTH + stressRandom.nextInt(STRESS_SPAN),
+                    stressRandom.nextInt(maxGapY - minGapY) + minGapY, profile.getGapSize());
+            obsScored[obsCount - 1] = true;
+        }
+
+        // Move, score and drop obstacles in one pass, keeping spawn order
+        double planeX = plane.getX();
+        int kept = 0;
+        for (int i = 0; i < obsCount; i++) {
+            int x = obsX[i] - obstacleSpeed;
+            boolean scored = obsScored[i];
+
+            if (!scored && x + Obstacle.WIDTH < planeX) {
+                scored = true;
+                score++;
+
+                if (course == null) {
+                    // +speedStep velocidade a cada pointsPerLevel pontos
+                    int speedLevel = score / profile.getPointsPerLevel();
+                    int expectedSpeed = profile.getBaseSpeed() + speedLevel * profile.getSpeedStep();
+                    if (expectedSpeed != obstacleSpeed && expectedSpeed <= profile.getMaxSpeed()) {
+                        obstacleSpeed = expectedSpeed;
+                    }
+
+                    if (score % profile.getPointsPerLevel() == 0 && spawnInterval > profile.getMinSpawnInterval()) {
+                        spawnInterval -= profile.getSpawnIntervalStep();
+                    }
+                }
+            }
+
+            if (x + Obstacle.WIDTH < 0) continue; // off screen for good
+            obsX[kept] = x;
+            obsGapY[kept] = obsGapY[i];
+            obsGapSize[kept] = obsGapSize[i];
+            obsScored[kept] = scored;
+            kept++;
+        }
+        obsCount = kept;
+    }
+
+    // Brings in every course obstacle that has reached the spawn line, applying its speed
+    // change, then moves the waiting one along with the rest. Each lap starts again from the
+    // course's start speed, since the changes are relative and would otherwise pile up.
+    private void spawnFromCourse() {
+        while (courseNextX <= WIDTH) {
+            if (courseIndex > 0 && courseIndex % course.getCount() == 0) obstacleSpeed = course.getStartSpeed();
+            course.read(courseIndex++);
+            addObstacle(courseNextX, course.getGapY(), course.getGapSize());
+            obstacleSpeed = Math.max(1, obstacleSpeed + course.getSpeedChange());
+            course.read(courseIndex);
+            courseNextX += Math.max(1, course.getSpacing());
+        }
+        courseNextX -= obstacleSpeed;
+    }
+
+    // What this plane hits where the obstacles are now, or CRASH_NONE
+    public int crashCause(Plane plane) {
+        Rectangle planeBounds = plane.getBounds();
+        int groundTop = HEIGHT - GROUND_HEIGHT;
+
+        // Ground and ceiling
+        if (plane.getY() + plane.getPlaneHeight() > groundTop) return CRASH_GROUND;
+        if (plane.getY() < 0) return CRASH_CEILING;
+
+        // Obstacles
+        int px = planeBounds.x, py = planeBounds.y, pw = planeBounds.width, ph = planeBounds.height;
+        for (int i = 0; i < obsCount; i++) {
+            int hit = Obstacle.hit(px, py, pw, ph, obsX[i], obsGapY[i], obsGapSize[i]);
+            if (hit == Obstacle.TOP) return CRASH_OBSTACLE_TOP;
+            if (hit == Obstacle.BOTTOM) return CRASH_OBSTACLE_BOTTOM;
+        }
+        return CRASH_NONE;
+    }
+
+    // Complete simulation state as flat primitives, for RewindBuffer. Clouds are scenery and
+    // are left out. Returns false if there are more than maxObstacles obstacles to save.
+    static final int STATE_INTS = 15;
+    static final int STATE_DOUBLES = 6;
+    static final int OBSTACLE_INTS = 4;
+
+    boolean saveState(int[] ints, int i, double[] doubles, int d, int maxObstacles) {
+        int count = obsCount;
+        if (count > maxObstacles) return false;
+        long rng = random.getState();
+        ints[i] = score;
+        ints[i + 1] = obstacleSpeed;
+        ints[i + 2] = spawnTimer;
+        ints[i + 3] = spawnInterval;
+        ints[i + 4] = groundOffset;
+        ints[i + 5] = lastSpeedUpScore;
+        ints[i + 6] = crashCause;
+        ints[i + 7] = (int) (rng >>> 32);
+        ints[i + 8] = (int) rng;
+        ints[i + 9] = plane.getTargetY();
+        ints[i + 10] = plane.isEngineOn() ? 1 : 0;
+        ints[i + 11] = count;
+        ints[i + 12] = (int) (courseIndex >>> 32);
+        ints[i + 13] = (int) courseIndex;
+        ints[i + 14] = courseNextX;
+        doubles[d] = bgMountainOffset;
+        doubles[d + 1] = bgCityOffset;
+        doubles[d + 2] = plane.getY();
+        doubles[d + 3] = plane.getVelocity();
+        doubles[d + 4] = plane.getRotation();
+        doubles[d + 5] = plane.getPropellerAngle();
+        int o = i + STATE_INTS;
+        for (int k = 0; k < count; k++, o += OBSTACLE_INTS) {
+            ints[o] = obsX[k];
+            ints[o + 1] = obsGapY[k];
+            ints[o + 2] = obsGapSize[k];
+            ints[o + 3] = obsScored[k] ? 1 : 0;
+        }
+        return true;
+    }
+
+    void loadState(int[] ints, int i, double[] doubles, int d) {
+        score = ints[i];
+        obstacleSpeed = ints[i + 1];
+        spawnTimer = ints[i + 2];
+        spawnInterval = ints[i + 3];
+        groundOffset = ints[i + 4];
+        lastSpeedUpScore = ints[i + 5];
+        crashCause = ints[i + 6];
+        crashed = crashCause != CRASH_NONE;
+        random.setState(((long) ints[i + 7] << 32) | (ints[i + 8] & 0xFFFFFFFFL));
+        plane.setState(doubles[d + 2], doubles[d + 3], doubles[d + 4], doubles[d + 5],
+                ints[i + 10] != 0, ints[i + 9]);
+        bgMountainOffset = doubles[d];
+        bgCityOffset = doubles[d + 1];
+        courseIndex = ((long) ints[i + 12] << 32) | (ints[i + 13] & 0xFFFFFFFFL);
+        courseNextX = ints[i + 14];
+        obsCount = 0;
+        int o = i + STATE_INTS;
+        for (int k = 0; k < ints[i + 11]; k++, o += OBSTACLE_INTS) {
+            addObstacle(ints[o], ints[o + 1], ints[o + 2]);
+            obsScored[k] = ints[o + 3] != 0;
+        }
+    }
+
+    // Takes effect on the next start(), never in the middle of a run
+    public void setProfile(DifficultyProfile profile) { this.profile = profile; }
+    public DifficultyProfile getProfile() { return profile; }
+
+    // Endurance course, or null for the seeded generator; also takes effect on the next start()
+    public void setCourse(CourseFile course) { this.course = course; }
+    public CourseFile getCourse() { return course; }
+    public long getCourseIndex() { return courseIndex; }
+
+    public Plane getPlane() { return plane; }
+    public double getPlaneY() { return plane.getY(); }
+    public double getPlaneVelocity() { return plane.getVelocity(); }
+    public long getSeed() { return seed; }
+    public boolean isMouseMode() { return mouseMode; }
+    public boolean isCrashed() { return crashed; }
+    public int getCrashCause() { return crashCause; }
+    public int getScore() { return score; }
+    public int getObstacleSpeed() { return obstacleSpeed; }
+    public int getGroundOffset() { return groundOffset; }
+    public double getMountainOffset() { return bgMountainOffset; }
+    public double getCityOffset() { return bgCityOffset; }
+
+    public int getObstacleCount() { return obsCount; }
+    public int getObstacleX(int i) { return obsX[i]; }
+    public int getObstacleGapY(int i) { return obsGapY[i]; }
+    public int getObstacleGapSize(int i) { return obsGapSize[i]; }
+    public int getObstacleWidth() { return Obstacle.WIDTH; }
+
+    // Obstacles per second added by the stress mode; 0 turns it off. Cleared by reset().
+    public void setStress(int perSecond) { stressRate = perSecond; }
+    public int getStress() { return stressRate; }
+
+    // Props per second spawned by updateScenery()
+    public void setPropRate(int perSecond) { propRate = perSecond; }
+    public int getPropCount() { return propCount; }
+
+    // Overwrites the drawable state from a snapshot; used by views that do not simulate
+    void setView(int score, int obstacleSpeed, int groundOffset, double mountainOffset, double cityOffset) {
+        this.score = score;
+        this.obstacleSpeed = obstacleSpeed;
+        this.groundOffset = groundOffset;
+        this.bgMountainOffset = mountainOffset;
+        this.bgCityOffset = cityOffset;
+    }
+
+    void clearObstacles() {
+        obsCount = 0;
+    }
+
+    void addObstacle(int x, int gapY, int gapSize) {
+        if (obsCount == obsX.length) {
+            int n = obsCount * 2;
+            obsX = Arrays.copyOf(obsX, n);
+            obsGapY = Arrays.copyOf(obsGapY, n);
+            obsGapSize = Arrays.copyOf(obsGapSize, n);
+            obsScored = Arrays.copyOf(obsScored, n);
+        }
+        obsX[obsCount] = x;
+        obsGapY[obsCount] = gapY;
+        obsGapSize[obsCount] = gapSize;
+        obsScored[obsCount] = false;
+        obsCount++;
+    }
+
+    // ==================== DESENHO ====================
+    // Scene only: no HUD or menus, so it can also feed offscreen renderers
+    public void draw(Graphics2D g2d, GameClock clock) {
+        drawScene(g2d, clock, RenderQuality.FULL);
+        plane.draw(g2d);
+    }
+
+    // Everything except the player's plane, for callers that layer extra planes in between
+    public void drawScene(Graphics2D g2d, GameClock clock, RenderQuality quality) {
+        Object antialias = g2d.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        Object background = quality.backgroundAntialias ? antialias : RenderingHints.VALUE_ANTIALIAS_OFF;
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, background);
+        drawSky(g2d);
+        drawClouds(g2d, quality.cloudStride);
+        drawMountains(g2d);
+        drawCityBackground(g2d, quality.buildingWindows);
+        drawProps(g2d);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
+
+        if (visible.length < obsCount) visible = new int[obsX.length];
+        int shown = 0;
+        for (int i = 0; i < obsCount; i++) {
+            if (Obstacle.onScreen(obsX[i])) visible[shown++] = i;
+        }
+        Obstacle.drawAll(g2d, clock, quality.buildingWindows, obsX, obsGapY, obsGapSize, visible, shown);
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, background);
+        drawGround(g2d);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
+    }
+
+    private void drawSky(Graphics2D g2d) {
+        g2d.setPaint(SKY);
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+    }
+
+    private void drawClouds(Graphics2D g2d, int stride) {
+        g2d.setColor(CLOUD);
+        for (int i = 0; i < cloudX.length; i += stride) {
+            int cx = (int) cloudX[i];
+            int cy = cloudY[i];
+            if (cx > WIDTH || cx + 90 < 0) continue;
+            g2d.fillOval(cx, cy, 70, 25);
+            g2d.fillOval(cx + 15, cy - 10, 45, 25);
+            g2d.fillOval(cx + 35, cy, 55, 22);
+        }
+    }
+
+    // Birds as a pair of strokes, balloons as an envelope over a basket; one color per kind
+    private void drawProps(Graphics2D g2d) {
+        if (propCount == 0) return;
+        g2d.setColor(BIRD_COLOR);
+        for (int i = 0; i < propCount; i++) {
+            int x = (int) propX[i];
+            if (propKind[i] != BIRD || x > WIDTH || x + 12 < 0) continue;
+            int y = propY[i];
+            g2d.drawLine(x, y, x + 6, y + 4);
+            g2d.drawLine(x + 6, y + 4, x + 12, y);
+        }
+        g2d.setColor(BALLOON_COLOR);
+        for (int i = 0; i < propCount; i++) {
+            int x = (int) propX[i];
+            if (propKind[i] != BALLOON || x > WIDTH || x + 16 < 0) continue;
+            int y = propY[i];
+            g2d.fillOval(x, y, 16, 20);
+            g2d.fillRect(x + 5, y + 24, 6, 5);
+        }
+    }
+
+    private void drawMountains(Graphics2D g2d) {
+        int baseY = HEIGHT - GROUND_HEIGHT - 30;
+        int[] xp = polygonX;
+        int[] yp = polygonY;
+        yp[0] = baseY;
+        yp[2] = baseY;
+        g2d.setColor(FAR_MOUNTAIN);
+        int offset = (int) bgMountainOffset;
+        for (int i = -1; i < 5; i++) {
+            int mx = i * 140 - offset;
+            xp[0] = mx;
+            xp[1] = mx + 70;
+            xp[2] = mx + 140;
+            yp[1] = baseY - 90 - (i % 3) * 30;
+            g2d.fillPolygon(xp, yp, 3);
+        }
+        g2d.setColor(NEAR_MOUNTAIN);
+        for (int i = -1; i < 5; i++) {
+            int mx = i * 120 - offset / 2 + 60;
+            xp[0] = mx;
+            xp[1] = mx + 60;
+            xp[2] = mx + 120;
+            yp[1] = baseY - 60 - (i % 2) * 25;
+            g2d.fillPolygon(xp, yp, 3);
+        }
+    }
+
+    private void drawCityBackground(Graphics2D g2d, boolean windows) {
+        int baseY = HEIGHT - GROUND_HEIGHT;
+        int offset = (int) bgCityOffset;
+        int[] heights = CITY_HEIGHTS;
+
+        for (int i = -1; i < 12; i++) {
+            int bx = i * 50 - offset;
+            int h = heights[Math.abs(i) % heights.length];
+            g2d.setColor(CITY);
+            g2d.fillRect(bx, baseY - h, 40, h);
+            if (!windows) continue;
+            g2d.setColor(CITY_WINDOW);
+            for (int wy = baseY - h + 5, row = 0; wy < baseY - 5; wy += 12, row++) {
+                for (int wx = bx + 5, col = 0; wx < bx + 35; wx += 10, col++) {
+                    // Fixed pattern per building, so drawing never touches a Random
+                    int hash = (i * 73856093) ^ (row * 19349663) ^ (col * 83492791);
+                    if (((hash >>> 4) & 0xFFFF) % 10 < 7) {
+                        g2d.fillRect(wx, wy, 5, 6);
+                    }
+                }
+            }
+        }
+    }
+
+    private void drawGround(Graphics2D g2d) {
+        int groundY = HEIGHT - GROUND_HEIGHT;
+
+        g2d.setColor(GROUND);
+        g2d.fillRect(0, groundY, WIDTH, GROUND_HEIGHT);
+
+        g2d.setColor(GROUND_STRIPE);
+        g2d.setStroke(THICK);
+        for (int i = -groundOffset; i < WIDTH + 30; i += 30) {
+            g2d.fillRect(i, groundY + GROUND_HEIGHT / 2 - 2, 15, 4);
+        }
+
+        g2d.setColor(GROUND_EDGE);
+        g2d.fillRect(0, groundY, WIDTH, 3);
+        g2d.fillRect(0, groundY + GROUND_HEIGHT - 3, WIDTH, 3);
+
+        g2d.setStroke(THIN);
+        g2d.setColor(GROUND_LIGHT);
+        for (int i = -groundOffset; i < WIDTH + 30; i += 60) {
+            g2d.fillOval(i, groundY + 6, 6, 6);
+            g2d.fillOval(i, groundY + GROUND_HEIGHT - 12, 6, 6);
+        }
+    }
+}
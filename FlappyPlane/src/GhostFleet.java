@@ -0,0 +1,214 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Recorded runs on the same seed and difficulty, replayed in lockstep with the live game as translucent planes.
+// All ghosts are stepped in one loop over primitive arrays; capture() culls them on the game
+// thread and draw() blits shared pre-rendered sprites, one drawImage per visible ghost.
+public class GhostFleet {
+    private static final int PLANE_X = 80;
+    private static final int PLANE_W = 50;
+    private static final int PLANE_H = 25;
+    private static final int SPRITE_SIZE = 80;
+    private static final int ROTATION_STEP = 2;
+    private static final int MAX_ROTATION = 25;
+    private static final int OVERLAP_CELL = 2; // ghosts closer than this in Y are drawn once
+    private static final float ALPHA = 0.35f;
+
+    private static BufferedImage[] sprites;
+
+    private final long seed;
+    private final DifficultyProfile profile;
+    private final int count;
+    private final short[] inputs;
+    private final int[] start;
+    private final int[] length;
+    private final boolean[] mouseMode;
+    private final double[] y;
+    private final double[] velocity;
+    private final double[] rotation;
+    private final boolean[] occupied;
+    private int tick;
+
+    private GhostFleet(long seed, DifficultyProfile profile, List<Replay> runs) {
+        this.seed = seed;
+        this.profile = profile;
+        this.count = runs.size();
+        start = new int[count];
+        length = new int[count];
+        mouseMode = new boolean[count];
+        y = new double[count];
+        velocity = new double[count];
+        rotation = new double[count];
+        occupied = new boolean[GameWorld.HEIGHT / OVERLAP_CELL + 1];
+
+        int total = 0;
+        for (Replay r : runs) total += r.getLength();
+        inputs = new short[total];
+        int pos = 0;
+        for (int g = 0; g < count; g++) {
+            Replay r = runs.get(g);
+            start[g] = pos;
+            length[g] = r.getLength();
+            mouseMode[g] = r.isMouseMode();
+            for (int t = 0; t < r.getLength(); t++) {
+                inputs[pos++] = (short) r.getInput(t);
+            }
+        }
+        reset();
+    }
+
+    // Picks the seed and profile of the best run under dir and keeps up to max runs that flew
+    // the same course, best first
+    public static GhostFleet load(Path dir, int max) throws IOException {
+        if (!Files.isDirectory(dir)) return null;
+        Map<String, List<Replay>> byCourse = new HashMap<>();
+        Replay best = null;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".fpr"))::iterator) {
+                Replay r;
+                try {
+                    r = Replay.read(p);
+                } catch (IOException e) {
+                    continue; // skip damaged files
+                }
+                byCourse.computeIfAbsent(courseKey(r), k -> new ArrayList<>()).add(r);
+                if (best == null || r.getScore() > best.getScore()) best = r;
+            }
+        }
+        if (best == null) return null;
+
+        List<Replay> runs = byCourse.get(courseKey(best));
+        runs.sort(Comparator.comparingInt(Replay::getScore).reversed());
+        if (runs.size() > max) runs = new ArrayList<>(runs.subList(0, max));
+        return new GhostFleet(best.getSeed(), best.getProfile(), runs);
+    }
+
+    private static String courseKey(Replay r) {
+        return r.getSeed() + Arrays.toString(r.getProfile().toArray());
+    }
+
+    public long getSeed() { return seed; }
+    public DifficultyProfile getProfile() { return profile; }
+    public int getCount() { return count; }
+
+    public void reset() {
+        tick = 0;
+        for (int g = 0; g < count; g++) {
+            y[g] = GameWorld.HEIGHT / 2 - 12;
+            velocity[g] = 0;
+            rotation[g] = 0;
+        }
+    }
+
+    // Doubles saveState() writes: the tick, then y, velocity and rotation of every ghost
+    public int stateDoubles() {
+        return 1 + count * 3;
+    }
+
+    // Flat copy of the fleet's position in its recordings, for RewindBuffer
+    public void saveState(double[] out, int at) {
+        out[at] = tick;
+        System.arraycopy(y, 0, out, at + 1, count);
+        System.arraycopy(velocity, 0, out, at + 1 + count, count);
+        System.arraycopy(rotation, 0, out, at + 1 + count * 2, count);
+    }
+
+    public void loadState(double[] in, int at) {
+        tick = (int) in[at];
+        System.arraycopy(in, at + 1, y, 0, count);
+        System.arraycopy(in, at + 1 + count, velocity, 0, count);
+        System.arraycopy(in, at + 1 + count * 2, rotation, 0, count);
+    }
+
+    // Mirrors Plane.update() for every ghost still inside its recording
+    public void update() {
+        int t = tick;
+        for (int g = 0; g < count; g++) {
+            if (t >= length[g]) continue;
+            int input = inputs[start[g] + t];
+            double v;
+            if (mouseMode[g]) {
+                v = Plane.mouseVelocity(y[g], input - PLANE_H / 2);
+            } else {
+                v = Plane.keyboardVelocity(velocity[g], (input & GameWorld.INPUT_UP) != 0,
+                        (input & GameWorld.INPUT_DOWN) != 0);
+            }
+            velocity[g] = v;
+            y[g] += v;
+            rotation[g] = Plane.nextRotation(rotation[g], v);
+        }
+        tick++;
+    }
+
+    // Culls the ghosts for this tick into out as (y, sprite) pairs, so another thread can draw
+    // them later with draw(). Returns how many are visible.
+    public int capture(int[] out) {
+        Arrays.fill(occupied, false);
+        int visible = 0;
+        int t = tick;
+        for (int g = 0; g < count && visible * 2 < out.length; g++) {
+            // A ghost's recording ends on the tick it crashed
+            if (t >= length[g]) continue;
+            double gy = y[g];
+            if (gy < -PLANE_H || gy > GameWorld.HEIGHT) continue;
+            int cell = (int) gy / OVERLAP_CELL;
+            if (cell >= 0 && cell < occupied.length) {
+                if (occupied[cell]) continue;
+                occupied[cell] = true;
+            }
+            out[visible * 2] = (int) gy;
+            out[visible * 2 + 1] = sprite(rotation[g]);
+            visible++;
+        }
+        return visible;
+    }
+
+    // Index of the sprite for a plane at this rotation, as draw() expects it
+    public static int sprite(double rotation) {
+        return (int) Math.round((Math.max(-MAX_ROTATION, Math.min(MAX_ROTATION, rotation)) + MAX_ROTATION) / ROTATION_STEP);
+    }
+
+    public static void draw(Graphics2D g2d, int[] visible, int n) {
+        BufferedImage[] images = sprites();
+        int half = SPRITE_SIZE / 2;
+        int cx = PLANE_X + PLANE_W / 2;
+        for (int i = 0; i < n; i++) {
+            g2d.drawImage(images[visible[i * 2 + 1]], cx - half, visible[i * 2] + PLANE_H / 2 - half, null);
+        }
+    }
+
+    // One translucent plane per rotation step, shared by every fleet
+    private static synchronized BufferedImage[] sprites() {
+        if (sprites != null) return sprites;
+        int buckets = MAX_ROTATION * 2 / ROTATION_STEP + 1;
+        sprites = new BufferedImage[buckets];
+        int half = SPRITE_SIZE / 2;
+        for (int b = 0; b < buckets; b++) {
+            BufferedImage plane = new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D pg = plane.createGraphics();
+            pg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Plane model = new Plane(half - PLANE_W / 2, half - PLANE_H / 2);
+            model.setRotation(b * ROTATION_STEP - MAX_ROTATION);
+            model.draw(pg);
+            pg.dispose();
+
+            BufferedImage ghost = new BufferedImage(SPRITE_SIZE, SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D gg = ghost.createGraphics();
+            gg.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, ALPHA));
+            gg.drawImage(plane, 0, 0, null);
+            gg.dispose();
+            sprites[b] = ghost;
+        }
+        return sprites;
+    }
+}
@@ -0,0 +1,369 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Persistent results: an append-only log is the source of truth, and a memory-mapped
+// index keeps the best results of each control mode sorted for instant top-N queries.
+// Results are written on a background thread; a torn last record is cut off on open.
+//
+// Uso: java Leaderboard [pasta] [n] [teclado | mouse]
+public class Leaderboard implements Closeable {
+    public static final int MODE_KEYBOARD = 0;
+    public static final int MODE_MOUSE = 1;
+    private static final int MODES = 2;
+
+    private static final int LOG_MAGIC = 0x46504C47; // "FPLG"
+    private static final int LOG_HEADER = 8;
+    private static final int MAX_RANK_BYTES = 16;
+    private static final int MAX_PAYLOAD = 4 + 1 + 8 + 8 + 1 + MAX_RANK_BYTES;
+
+    public static class Entry {
+        public final int score;
+        public final int mode;
+        public final long seed;
+        public final long timestamp;
+        public final String rank;
+
+        public Entry(int score, int mode, long seed, long timestamp, String rank) {
+            this.score = score;
+            this.mode = mode;
+            this.seed = seed;
+            this.timestamp = timestamp;
+            this.rank = rank;
+        }
+    }
+
+    private final FileChannel log;
+    private final Index index;
+    private final ExecutorService writer;
+
+    private Leaderboard(FileChannel log, Index index) {
+        this.log = log;
+        this.index = index;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "leaderboard-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static Leaderboard open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        FileChannel log = FileChannel.open(dir.resolve("results.log"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (log.size() < LOG_HEADER) {
+                ByteBuffer header = ByteBuffer.allocate(LOG_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(LOG_MAGIC).putInt(1).flip();
+                log.truncate(0);
+                log.write(header, 0);
+                log.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(LOG_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                log.read(header, 0);
+                if (header.getInt(0) != LOG_MAGIC) {
+                    throw new IOException("Arquivo de resultados invalido em " + dir);
+                }
+            }
+
+            Index index = new Index(dir.resolve("top.idx"));
+            List<Entry> replayed = new ArrayList<>();
+            long validLength = scan(log, replayed);
+            if (validLength < log.size()) {
+                System.err.println("Placar: descartando registro incompleto no fim do log");
+                log.truncate(validLength);
+                log.force(true);
+            }
+            if (!index.isValidFor(validLength)) {
+                index.rebuild(replayed, validLength);
+            }
+            log.position(validLength);
+
+            Leaderboard board = new Leaderboard(log, index);
+            Runtime.getRuntime().addShutdownHook(new Thread(board::closeQuietly));
+            return board;
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    // Reads records until the first one that is incomplete or fails its checksum
+    private static long scan(FileChannel log, List<Entry> out) throws IOException {
+        long size = log.size();
+        long pos = LOG_HEADER;
+        ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer body = ByteBuffer.allocate(MAX_PAYLOAD + 4).order(ByteOrder.LITTLE_ENDIAN);
+        while (pos + 4 <= size) {
+            head.clear();
+            log.read(head, pos);
+            int length = head.getInt(0);
+            if (length < 0 || length > MAX_PAYLOAD || pos + 4 + length + 4 > size) break;
+
+            body.clear().limit(length + 4);
+            while (body.hasRemaining()) {
+                if (log.read(body, pos + 4 + body.position()) < 0) break;
+            }
+            if (body.hasRemaining()) break;
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, length);
+            if ((int) crc.getValue() != body.getInt(length)) break;
+
+            body.flip();
+            Entry entry = decode(body, length);
+            if (entry == null) break;
+            out.add(entry);
+            pos += 4 + length + 4;
+        }
+        return pos;
+    }
+
+    private static Entry decode(ByteBuffer buf, int length) {
+        int score = buf.getInt();
+        int mode = buf.get();
+        long seed = buf.getLong();
+        long timestamp = buf.getLong();
+        int rankLen = buf.get();
+        if (mode < 0 || mode >= MODES || rankLen < 0 || 22 + rankLen != length) return null;
+        byte[] rank = new byte[rankLen];
+        buf.get(rank);
+        return new Entry(score, mode, seed, timestamp, new String(rank, StandardCharsets.UTF_8));
+    }
+
+    // Queues a result; never blocks the caller on disk
+    public void submit(int score, String rank, int mode, long seed, long timestamp) {
+        byte[] rankBytes = rank.getBytes(StandardCharsets.UTF_8);
+        if (rankBytes.length > MAX_RANK_BYTES || mode < 0 || mode >= MODES) {
+            throw new IllegalArgumentException("Resultado invalido para o placar");
+        }
+        Entry entry = new Entry(score, mode, seed, timestamp, rank);
+        writer.execute(() -> {
+            try {
+                append(entry, rankBytes);
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar placar: " + e.getMessage());
+            }
+        });
+    }
+
+    private void append(Entry entry, byte[] rankBytes) throws IOException {
+        int length = 22 + rankBytes.length;
+        ByteBuffer buf = ByteBuffer.allocate(4 + length + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(length);
+        buf.putInt(entry.score);
+        buf.put((byte) entry.mode);
+        buf.putLong(entry.seed);
+        buf.putLong(entry.timestamp);
+        buf.put((byte) rankBytes.length);
+        buf.put(rankBytes);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 4, length);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        while (buf.hasRemaining()) log.write(buf);
+        log.force(false);
+        index.insert(entry, log.position());
+    }
+
+    public List<Entry> top(int n) {
+        return index.top(n, -1);
+    }
+
+    public List<Entry> top(int n, int mode) {
+        return index.top(n, mode);
+    }
+
+    public int best() {
+        List<Entry> top = index.top(1, -1);
+        return top.isEmpty() ? 0 : top.get(0).score;
+    }
+
+    // Waits for queued results to reach the disk
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Fixed-size, memory-mapped table of the best CAPACITY results per mode, sorted by score.
+    // The header carries the log length it covers and a CRC of the entries, so a stale or
+    // half-flushed index is detected on open and rebuilt from the log.
+    private static class Index {
+        private static final int MAGIC = 0x46504958; // "FPIX"
+        private static final int CAPACITY = 1000;
+        private static final int ENTRY = 40;
+        private static final int HEADER = 32;
+        private static final int SIZE = HEADER + MODES * CAPACITY * ENTRY;
+
+        private final MappedByteBuffer buf;
+        private final int[] counts = new int[MODES];
+
+        Index(Path path) throws IOException {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+            }
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        // Header: magic, count per mode, covered log length, entries CRC
+        synchronized boolean isValidFor(long logLength) {
+            if (buf.getInt(0) != MAGIC) return false;
+            for (int m = 0; m < MODES; m++) {
+                counts[m] = buf.getInt(4 + m * 4);
+                if (counts[m] < 0 || counts[m] > CAPACITY) return false;
+            }
+            return buf.getLong(16) == logLength && buf.getInt(24) == checksum();
+        }
+
+        synchronized void rebuild(List<Entry> entries, long logLength) {
+            counts[0] = 0;
+            counts[1] = 0;
+            for (Entry e : entries) {
+                insertSorted(e);
+            }
+            writeHeader(logLength);
+        }
+
+        synchronized void insert(Entry entry, long logLength) {
+            insertSorted(entry);
+            writeHeader(logLength);
+        }
+
+        private void insertSorted(Entry entry) {
+            int mode = entry.mode;
+            int count = counts[mode];
+            // Ties keep the earlier result first
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (buf.getInt(offset(mode, mid)) >= entry.score) lo = mid + 1;
+                else hi = mid;
+            }
+            if (lo >= CAPACITY) return;
+
+            int last = Math.min(count, CAPACITY - 1);
+            for (int i = last; i > lo; i--) {
+                int dst = offset(mode, i);
+                int src = offset(mode, i - 1);
+                for (int b = 0; b < ENTRY; b += 8) {
+                    buf.putLong(dst + b, buf.getLong(src + b));
+                }
+            }
+            writeEntry(offset(mode, lo), entry);
+            if (count < CAPACITY) counts[mode]++;
+        }
+
+        private void writeEntry(int off, Entry e) {
+            byte[] rank = e.rank.getBytes(StandardCharsets.UTF_8);
+            buf.putInt(off, e.score);
+            buf.put(off + 4, (byte) e.mode);
+            buf.put(off + 5, (byte) rank.length);
+            buf.putShort(off + 6, (short) 0);
+            buf.putLong(off + 8, e.seed);
+            buf.putLong(off + 16, e.timestamp);
+            for (int i = 0; i < MAX_RANK_BYTES; i++) {
+                buf.put(off + 24 + i, i < rank.length ? rank[i] : 0);
+            }
+        }
+
+        private Entry readEntry(int off) {
+            int rankLen = buf.get(off + 5);
+            byte[] rank = new byte[rankLen];
+            for (int i = 0; i < rankLen; i++) rank[i] = buf.get(off + 24 + i);
+            return new Entry(buf.getInt(off), buf.get(off + 4), buf.getLong(off + 8),
+                    buf.getLong(off + 16), new String(rank, StandardCharsets.UTF_8));
+        }
+
+        private void writeHeader(long logLength) {
+            buf.putInt(0, MAGIC);
+            for (int m = 0; m < MODES; m++) buf.putInt(4 + m * 4, counts[m]);
+            buf.putLong(16, logLength);
+            buf.putInt(24, checksum());
+        }
+
+        private int checksum() {
+            CRC32 crc = new CRC32();
+            for (int m = 0; m < MODES; m++) {
+                ByteBuffer section = buf.duplicate();
+                section.position(offset(m, 0)).limit(offset(m, counts[m]));
+                crc.update(section);
+            }
+            return (int) crc.getValue();
+        }
+
+        private static int offset(int mode, int i) {
+            return HEADER + (mode * CAPACITY + i) * ENTRY;
+        }
+
+        // mode -1 merges both sorted sections
+        synchronized List<Entry> top(int n, int mode) {
+            List<Entry> result = new ArrayList<>(Math.min(n, CAPACITY));
+            if (mode >= 0) {
+                for (int i = 0; i < n && i < counts[mode]; i++) {
+                    result.add(readEntry(offset(mode, i)));
+                }
+                return result;
+            }
+            int a = 0, b = 0;
+            while (result.size() < n && (a < counts[0] || b < counts[1])) {
+                boolean takeA = b >= counts[1] || (a < counts[0]
+                        && buf.getInt(offset(0, a)) >= buf.getInt(offset(1, b)));
+                result.add(takeA ? readEntry(offset(0, a++)) : readEntry(offset(1, b++)));
+            }
+            return result;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "placar");
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int mode = -1;
+        if (args.length > 2) {
+            mode = args[2].equalsIgnoreCase("mouse") ? MODE_MOUSE : MODE_KEYBOARD;
+        }
+
+        try (Leaderboard board = open(dir)) {
+            long start = System.nanoTime();
+            List<Entry> top = mode < 0 ? board.top(n) : board.top(n, mode);
+            long micros = (System.nanoTime() - start) / 1000;
+
+            SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+            for (int i = 0; i < top.size(); i++) {
+                Entry e = top.get(i);
+                System.out.printf("%3d. %5d  %-10s %-8s %s%n", i + 1, e.score, e.rank,
+                        e.mode == MODE_MOUSE ? "MOUSE" : "TECLADO", fmt.format(new Date(e.timestamp)));
+            }
+            System.out.println("Consulta em " + micros + " us");
+        }
+    }
+}
@@ -1,65 +1,277 @@
-import javazoom.jl.player.advanced.AdvancedPlayer;
-import javazoom.jl.player.advanced.PlaybackEvent;
-import javazoom.jl.player.advanced.PlaybackListener;
-import java.io.FileInputStream;
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.JavaLayerException;
+import javazoom.jl.decoder.SampleBuffer;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
 import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
 
+// Plays a playlist in a loop with two daemon threads. The decoder thread turns the tracks, one
+// after the other, into 44.1 kHz stereo PCM in a ring that holds -Dflappy.musicAheadMs of
+// sound (default 3000), and waits while the ring is full, so memory stays bounded whatever the
+// track length. The output thread copies the ring to the sound line. Tracks run straight into
+// each other in the ring, so a track change adds no gap and needs no file opened on the output
+// side. play() and stop() only flip a flag (stop pauses where it is), so the game thread never
+// waits on audio. With -Dflappy.audio=null nothing reaches the sound card, but decoding and
+// output still run at the real playback rate.
 public class MusicPlayer {
-    private String filePath;
-    private AdvancedPlayer player;
-    private Thread playerThread;
-    private boolean running;
-    private boolean looping;
-
-    public MusicPlayer(String filePath) {
-        this.filePath = filePath;
-        this.running = false;
-        this.looping = true;
+    private static final int RATE = 44100;
+    private static final int CHUNK_FRAMES = 1024; // ~23 ms per write
+    private static final int LINE_CHUNKS = 4;
+    private static final int MIN_RING_FRAMES = 16384; // more than one MP3 frame at any rate
+
+    private final List<File> tracks;
+    private final boolean silent;
+    private final Thread decoderThread;
+    private final Thread outputThread;
+
+    // Ring of interleaved stereo samples; each position is written by one thread only
+    private final short[] ring;
+    private volatile long written;
+    private volatile long read;
+
+    // Output side, touched only by the output thread
+    private final byte[] chunk = new byte[CHUNK_FRAMES * 4];
+    private SourceDataLine line;
+    private int underruns;
+
+    // Decoder side: linear resampling state carried between frames of a track
+    private double sourcePos;
+    private short lastLeft, lastRight;
+
+    private boolean playing;
+    private volatile boolean closed;
+
+    public MusicPlayer(List<File> tracks) {
+        if (tracks.isEmpty()) throw new IllegalArgumentException("playlist vazia");
+        this.tracks = new ArrayList<>(tracks);
+        this.silent = "null".equals(System.getProperty("flappy.audio"));
+        int aheadMs = Integer.getInteger("flappy.musicAheadMs", 3000);
+        ring = new short[Math.max(MIN_RING_FRAMES, (int) ((long) RATE * aheadMs / 1000)) * 2];
+        decoderThread = new Thread(this::decode, "music-decoder");
+        decoderThread.setDaemon(true);
+        outputThread = new Thread(this::output, "music");
+        outputThread.setDaemon(true);
+        decoderThread.start();
+        outputThread.start();
     }
 
-    public void play() {
-        if (running) return;
-        running = true;
-        looping = true;
-
-        playerThread = new Thread(() -> {
-            while (running && looping) {
-                try {
-                    FileInputStream fis = new FileInputStream(filePath);
-                    BufferedInputStream bis = new BufferedInputStream(fis);
-                    player = new AdvancedPlayer(bis);
-
-                    player.setPlayBackListener(new PlaybackListener() {
-                        @Override
-                        public void playbackFinished(PlaybackEvent evt) {
-                            // Will loop back in the while
-                        }
-                    });
-
-                    player.play();
-                    // Player finished, if still looping it will restart
-                } catch (Exception e) {
-                    System.err.println("Erro ao tocar musica: " + e.getMessage());
-                    running = false;
+    // The tracks of a music source: an MP3 file, a folder (its MP3s by name) or a list file
+    // (.m3u, .m3u8 or .txt, one path per line relative to the list, # starts a comment)
+    public static List<File> loadPlaylist(String source) throws IOException {
+        File f = new File(source);
+        List<File> tracks = new ArrayList<>();
+        if (f.isDirectory()) {
+            File[] files = f.listFiles((dir, name) -> name.toLowerCase().endsWith(".mp3"));
+            if (files != null) {
+                Arrays.sort(files);
+                tracks.addAll(Arrays.asList(files));
+            }
+        } else if (f.isFile() && isListFile(f.getName())) {
+            for (String line : Files.readAllLines(f.toPath(), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                File track = new File(line);
+                if (!track.isAbsolute()) track = new File(f.getAbsoluteFile().getParentFile(), line);
+                if (track.isFile()) {
+                    tracks.add(track);
+                } else {
+                    System.out.println("Musica da lista nao encontrada: " + track);
                 }
             }
-        });
-        playerThread.setDaemon(true);
-        playerThread.start();
+        } else if (f.isFile()) {
+            tracks.add(f);
+        }
+        return tracks;
     }
 
-    public void stop() {
-        running = false;
-        looping = false;
-        if (player != null) {
-            player.close();
+    private static boolean isListFile(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".m3u") || lower.endsWith(".m3u8") || lower.endsWith(".txt");
+    }
+
+    public synchronized void play() {
+        if (closed) return;
+        playing = true;
+        notifyAll();
+    }
+
+    // Pauses; play() goes on from the same point
+    public synchronized void stop() {
+        playing = false;
+    }
+
+    // Stops for good and lets both threads end
+    public synchronized void close() {
+        closed = true;
+        playing = false;
+        notifyAll();
+        LockSupport.unpark(decoderThread);
+    }
+
+    public synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    // Times the output found the ring empty while playing
+    public int getUnderruns() {
+        return underruns;
+    }
+
+    // ==================== DECODER THREAD ====================
+    private void decode() {
+        while (!closed) {
+            int decoded = 0;
+            for (int t = 0; t < tracks.size() && !closed; t++) {
+                if (decodeTrack(tracks.get(t))) decoded++;
+            }
+            if (decoded == 0) {
+                System.err.println("Nenhuma musica da lista pode ser tocada");
+                return;
+            }
         }
-        if (playerThread != null) {
-            playerThread.interrupt();
+    }
+
+    private boolean decodeTrack(File file) {
+        sourcePos = 0;
+        lastLeft = lastRight = 0;
+        boolean any = false;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            Bitstream bitstream = new Bitstream(in);
+            Decoder decoder = new Decoder();
+            try {
+                Header header;
+                while (!closed && (header = bitstream.readFrame()) != null) {
+                    SampleBuffer out = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+                    bitstream.closeFrame();
+                    push(out.getBuffer(), out.getBufferLength(), out.getChannelCount(), out.getSampleFrequency());
+                    any = true;
+                }
+            } finally {
+                bitstream.close();
+            }
+        } catch (IOException | JavaLayerException e) {
+            System.err.println("Erro ao tocar musica " + file.getName() + ": " + e.getMessage());
+        }
+        return any;
+    }
+
+    // Appends one decoded frame as 44.1 kHz stereo, waiting for room in the ring first
+    private void push(short[] pcm, int length, int channels, int rate) {
+        int frames = length / channels;
+        if (frames == 0) return;
+        double step = rate / (double) RATE;
+        long needed = ((long) Math.ceil(frames / step) + 2) * 2;
+        while (!closed && ring.length - (written - read) < needed) {
+            LockSupport.parkNanos(5_000_000);
+        }
+        if (closed) return;
+
+        long w = written;
+        int right = channels > 1 ? 1 : 0;
+        if (rate == RATE) {
+            for (int i = 0; i < frames; i++) {
+                ring[(int) (w++ % ring.length)] = pcm[i * channels];
+                ring[(int) (w++ % ring.length)] = pcm[i * channels + right];
+            }
+        } else {
+            // Index -1 is the last frame of the previous block
+            double pos = sourcePos;
+            while (pos < frames - 1) {
+                int i = (int) Math.floor(pos);
+                double frac = pos - i;
+                int l0 = i < 0 ? lastLeft : pcm[i * channels];
+                int r0 = i < 0 ? lastRight : pcm[i * channels + right];
+                ring[(int) (w++ % ring.length)] = (short) (l0 + (pcm[(i + 1) * channels] - l0) * frac);
+                ring[(int) (w++ % ring.length)] = (short) (r0 + (pcm[(i + 1) * channels + right] - r0) * frac);
+                pos += step;
+            }
+            sourcePos = pos - frames;
+        }
+        lastLeft = pcm[(frames - 1) * channels];
+        lastRight = pcm[(frames - 1) * channels + right];
+        written = w;
+    }
+
+    // ==================== OUTPUT THREAD ====================
+    private void output() {
+        AudioFormat format = new AudioFormat(RATE, 16, 2, true, false);
+        if (!silent) {
+            try {
+                line = AudioSystem.getSourceDataLine(format);
+                line.open(format, chunk.length * LINE_CHUNKS);
+            } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+                System.out.println("Musica sem saida de audio: " + e.getMessage());
+                line = null;
+            }
+        }
+        long chunkNanos = CHUNK_FRAMES * 1_000_000_000L / RATE;
+        long deadline = 0;
+        boolean starved = false;
+        try {
+            while (awaitPlay()) {
+                if (line != null && !line.isRunning()) line.start();
+                int available = (int) Math.min(written - read, chunk.length / 2);
+                if (available < chunk.length / 2) {
+                    // Before the first track is ready, or a dropout on a very slow machine
+                    if (!starved && read > 0) underruns++;
+                    starved = true;
+                    LockSupport.parkNanos(chunkNanos / 4);
+                    continue;
+                }
+                starved = false;
+                long r = read;
+                for (int i = 0; i < available; i++) {
+                    short s = ring[(int) (r++ % ring.length)];
+                    chunk[2 * i] = (byte) s;
+                    chunk[2 * i + 1] = (byte) (s >> 8);
+                }
+                read = r;
+                LockSupport.unpark(decoderThread);
+
+                if (line != null) {
+                    line.write(chunk, 0, chunk.length);
+                } else {
+                    long now = System.nanoTime();
+                    if (deadline < now) deadline = now;
+                    deadline += chunkNanos;
+                    LockSupport.parkNanos(deadline - now);
+                }
+            }
+        } finally {
+            if (line != null) line.close();
         }
     }
 
-    public boolean isPlaying() {
-        return running;
+    // Waits until there is something to play, silencing the line while paused; false once closed
+    private boolean awaitPlay() {
+        synchronized (this) {
+            if (playing) return true;
+        }
+        if (line != null) {
+            line.stop();
+            line.flush();
+        }
+        synchronized (this) {
+            try {
+                while (!playing && !closed) wait();
+            } catch (InterruptedException e) {
+                return false;
+            }
+            return !closed;
+        }
     }
 }
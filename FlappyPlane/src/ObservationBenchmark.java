@@ -0,0 +1,76 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Steps a batch of headless environments with the Autopilot and renders every one of them into
+// a single observation buffer each step, the way an agent trainer would, then reports
+// observations per second and how much the render loop allocates. The buffer is created once
+// and reused for the whole run; a checksum of each batch keeps the work from being skipped.
+//
+// Uso: java ObservationBenchmark [ambientes] [passos] [largura] [altura] [cor]
+public class ObservationBenchmark {
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int environments = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : 84;
+        int height = args.length > 3 ? Integer.parseInt(args[3]) : 84;
+        boolean color = args.length > 4 && args[4].equals("cor");
+
+        ObservationRenderer renderer = new ObservationRenderer(width, height, !color);
+        GameWorld[] worlds = new GameWorld[environments];
+        Autopilot[] pilots = new Autopilot[environments];
+        for (int i = 0; i < environments; i++) {
+            worlds[i] = new GameWorld(i);
+            worlds[i].start(i, false);
+            pilots[i] = new Autopilot();
+        }
+        int[] batch = renderer.createBatchBuffer(environments);
+
+        // The first round warms up the JIT and the per-thread surfaces; the second is reported
+        long checksum = 0;
+        double stepSeconds = 0, renderSeconds = 0;
+        long allocated = 0;
+        for (int round = 0; round < 2; round++) {
+            int n = round == 0 ? Math.min(steps, 30) : steps;
+            stepSeconds = 0;
+            renderSeconds = 0;
+            long allocatedBefore = allocatedBytes();
+            for (int s = 0; s < n; s++) {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < environments; i++) {
+                    if (worlds[i].update(pilots[i].decide(worlds[i]))) worlds[i].start(i + s, false);
+                }
+                long t1 = System.nanoTime();
+                renderer.renderBatch(worlds, batch);
+                long t2 = System.nanoTime();
+                stepSeconds += (t1 - t0) / 1e9;
+                renderSeconds += (t2 - t1) / 1e9;
+                checksum += Arrays.hashCode(batch);
+            }
+            allocated = allocatedBytes() - allocatedBefore;
+        }
+
+        long observations = (long) environments * steps;
+        System.out.printf("%d ambientes x %d passos, %dx%d %s, %d threads%n", environments, steps, width, height,
+                color ? "cor" : "cinza", Runtime.getRuntime().availableProcessors());
+        System.out.printf("Desenho: %.0f observacoes/s (%.2f ms por lote); simulacao: %.2f ms por passo%n",
+                observations / renderSeconds, renderSeconds * 1000 / steps, stepSeconds * 1000 / steps);
+        System.out.printf("Buffer do lote: %d KB, um so para a execucao inteira%n", batch.length * 4L / 1024);
+        if (allocated >= 0) {
+            System.out.printf("Alocado durante a medicao: %.1f KB por lote, %.0f bytes por observacao%n",
+                    allocated / 1024.0 / steps, allocated / (double) observations);
+        }
+        System.out.println("Soma de conferencia: " + Long.toHexString(checksum));
+    }
+
+    // Bytes allocated so far by all live threads, or -1 where the JVM cannot tell
+    private static long allocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,79 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.stream.IntStream;
+
+// Headless renderer that turns game worlds into small pixel observations for agents.
+// Frames of a batch are packed back to back in one caller-owned buffer.
+public class ObservationRenderer {
+    private final int width;
+    private final int height;
+    private final boolean grayscale;
+    private final ThreadLocal<Surface> surfaces;
+
+    // One reusable image per worker thread, drawn at the observation size directly
+    private static class Surface {
+        final BufferedImage image;
+        final int[] pixels;
+        final Graphics2D g2d;
+        // Never advanced: blinking lights would only add noise between observations
+        final GameClock clock = new GameClock();
+
+        Surface(int width, int height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            g2d = image.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g2d.scale(width / (double) GameWorld.WIDTH, height / (double) GameWorld.HEIGHT);
+        }
+    }
+
+    public ObservationRenderer(int width, int height, boolean grayscale) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Tamanho de observacao invalido: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.grayscale = grayscale;
+        this.surfaces = ThreadLocal.withInitial(() -> new Surface(width, height));
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public boolean isGrayscale() { return grayscale; }
+    public int getFrameSize() { return width * height; }
+
+    // Grayscale frames hold one 0-255 value per int, color frames hold 0xRRGGBB
+    public int[] createBatchBuffer(int environments) {
+        return new int[environments * getFrameSize()];
+    }
+
+    public void render(GameWorld world, int[] out, int offset) {
+        Surface surface = surfaces.get();
+        world.draw(surface.g2d, surface.clock);
+
+        int[] src = surface.pixels;
+        int n = src.length;
+        if (!grayscale) {
+            System.arraycopy(src, 0, out, offset, n);
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            int rgb = src[i];
+            int r = (rgb >> 16) & 0xFF;
+            int g = (rgb >> 8) & 0xFF;
+            int b = rgb & 0xFF;
+            out[offset + i] = (r * 77 + g * 150 + b * 29) >> 8;
+        }
+    }
+
+    // Renders every world into its slot of out, spreading the worlds across all cores
+    public void renderBatch(GameWorld[] worlds, int[] out) {
+        int frameSize = getFrameSize();
+        if (out.length < worlds.length * frameSize) {
+            throw new IllegalArgumentException("Buffer pequeno demais para " + worlds.length + " ambientes");
+        }
+        IntStream.range(0, worlds.length).parallel()
+                .forEach(i -> render(worlds[i], out, i * frameSize));
+    }
+}
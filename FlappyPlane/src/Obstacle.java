@@ -1,114 +1,146 @@
 import java.awt.*;
 
-public class Obstacle {
-    private int x;
-    private int gapY;
-    private static final int WIDTH = 55;
-    private static final int GAP_SIZE = 160;
-    private boolean scored;
-    private int screenHeight;
-    private int groundHeight;
-
-    public Obstacle(int x, int gapY, int screenHeight, int groundHeight) {
-        this.x = x;
-        this.gapY = gapY;
-        this.screenHeight = screenHeight;
-        this.groundHeight = groundHeight;
-        this.scored = false;
+// Drawing and hit tests for obstacles. GameWorld keeps them as parallel primitive arrays
+// (x, gap top, gap size); each obstacle is a building hanging from the top and one standing
+// on the ground. Drawing goes one layer at a time over all visible obstacles, so colors and
+// strokes change once per layer instead of once per building.
+public final class Obstacle {
+    static final int WIDTH = 55;
+
+    // What hit() found
+    static final int MISS = 0;
+    static final int TOP = 1;
+    static final int BOTTOM = 2;
+
+    private static final int GROUND_TOP = GameWorld.HEIGHT - GameWorld.GROUND_HEIGHT;
+    private static final int WINDOW_W = 8;
+    private static final int WINDOW_H = 10;
+
+    private static final Color BODY = new Color(100, 110, 130);
+    private static final Color SIDE = new Color(80, 90, 110);
+    private static final Color PANEL = new Color(120, 130, 150);
+    private static final Color LIT_WINDOW = new Color(255, 230, 140, 200);
+    private static final Color DARK_WINDOW = new Color(140, 170, 200);
+    private static final Color WINDOW_FRAME = new Color(70, 80, 100);
+    private static final Color CAP = new Color(200, 60, 60);
+    private static final Color CAP_EDGE = new Color(150, 40, 40);
+    private static final Color OUTLINE = new Color(60, 65, 80);
+    private static final BasicStroke THIN = new BasicStroke(1);
+    private static final BasicStroke OUTLINE_STROKE = new BasicStroke(1.5f);
+
+    private Obstacle() { }
+
+    // Whether anything of an obstacle at x is inside [0, screen width]
+    static boolean onScreen(int x) {
+        return x + WIDTH + 3 >= 0 && x - 3 <= GameWorld.WIDTH;
     }
 
-    public void update(int speed) {
-        x -= speed;
+    // Same result as testing the plane bounds against the top building and then the bottom
+    // one with Rectangle.intersects(), without allocating
+    static int hit(int px, int py, int pw, int ph, int x, int gapY, int gapSize) {
+        if (px + pw <= x - 1 || px >= x + WIDTH + 1) return MISS;
+        if (gapY > 0 && py < gapY && py + ph > 0) return TOP;
+        int bottomY = gapY + gapSize;
+        if (bottomY < GameWorld.HEIGHT && py + ph > bottomY && py < GameWorld.HEIGHT) return BOTTOM;
+        return MISS;
     }
 
-    public void draw(Graphics2D g2d) {
-        int bottomY = gapY + GAP_SIZE;
-        int groundTop = screenHeight - groundHeight;
+    // Draws the obstacles listed in visible[0..count) (indices into the arrays)
+    static void drawAll(Graphics2D g2d, GameClock clock, boolean windows,
+                        int[] xs, int[] gapYs, int[] gapSizes, int[] visible, int count) {
+        g2d.setColor(BODY);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            int by = top(k, gapYs[i], gapSizes[i]);
+            int h = height(k, gapYs[i], gapSizes[i]);
+            if (h > 0) g2d.fillRect(xs[i], by, WIDTH, h);
+        }
+        // Darker side panel, then the lighter one
+        g2d.setColor(SIDE);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            int h = height(k, gapYs[i], gapSizes[i]);
+            if (h > 0) g2d.fillRect(xs[i] + WIDTH - 10, top(k, gapYs[i], gapSizes[i]), 10, h);
+        }
+        g2d.setColor(PANEL);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            int h = height(k, gapYs[i], gapSizes[i]);
+            if (h > 0) g2d.fillRect(xs[i] + 3, top(k, gapYs[i], gapSizes[i]), 8, h);
+        }
 
-        // Top obstacle (building/tower from top)
-        drawBuilding(g2d, x, 0, WIDTH, gapY, true);
+        if (windows) {
+            g2d.setStroke(THIN);
+            drawWindows(g2d, xs, gapYs, gapSizes, visible, count, LIT_WINDOW, 0);
+            drawWindows(g2d, xs, gapYs, gapSizes, visible, count, DARK_WINDOW, 1);
+            drawWindows(g2d, xs, gapYs, gapSizes, visible, count, WINDOW_FRAME, 2);
+        }
 
-        // Bottom obstacle (building from ground)
-        drawBuilding(g2d, x, bottomY, WIDTH, groundTop - bottomY, false);
-    }
+        // Caps: the bottom edge of the top building, the top edge of the ground one
+        g2d.setColor(CAP);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            if (height(k, gapYs[i], gapSizes[i]) > 0) g2d.fillRect(xs[i] - 3, capY(k, gapYs[i], gapSizes[i]), WIDTH + 6, 6);
+        }
+        g2d.setStroke(OUTLINE_STROKE);
+        g2d.setColor(CAP_EDGE);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            if (height(k, gapYs[i], gapSizes[i]) > 0) g2d.drawRect(xs[i] - 3, capY(k, gapYs[i], gapSizes[i]), WIDTH + 6, 6);
+        }
 
-    private void drawBuilding(Graphics2D g2d, int bx, int by, int w, int h, boolean fromTop) {
-        if (h <= 0) return;
-
-        // Main structure
-        g2d.setColor(new Color(100, 110, 130));
-        g2d.fillRect(bx, by, w, h);
-
-        // Darker side panel
-        g2d.setColor(new Color(80, 90, 110));
-        g2d.fillRect(bx + w - 10, by, 10, h);
-
-        // Lighter panel
-        g2d.setColor(new Color(120, 130, 150));
-        g2d.fillRect(bx + 3, by, 8, h);
-
-        // Windows
-        g2d.setColor(new Color(180, 210, 240));
-        int windowW = 8;
-        int windowH = 10;
-        int startY = fromTop ? by + (h % 18) + 5 : by + 8;
-        int endY = fromTop ? by + h - 5 : by + h - 5;
-
-        for (int wy = startY; wy + windowH < endY; wy += 18) {
-            for (int wx = bx + 8; wx + windowW < bx + w - 10; wx += 14) {
-                // Some windows lit, some dark
-                if ((wx + wy) % 3 == 0) {
-                    g2d.setColor(new Color(255, 230, 140, 200)); // Lit window
-                } else {
-                    g2d.setColor(new Color(140, 170, 200)); // Dark window
-                }
-                g2d.fillRect(wx, wy, windowW, windowH);
-                g2d.setColor(new Color(70, 80, 100));
-                g2d.drawRect(wx, wy, windowW, windowH);
-            }
+        // Warning lights
+        g2d.setColor(clock.warningColor());
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            if (height(k, gapYs[i], gapSizes[i]) <= 0) continue;
+            int ly = (k & 1) == 0 ? gapYs[i] - 10 : gapYs[i] + gapSizes[i] + 2;
+            g2d.fillOval(xs[i] + WIDTH / 2 - 4, ly, 8, 8);
         }
 
-        // Top/bottom cap (antenna platform or base)
-        if (fromTop) {
-            // Bottom cap of top building
-            g2d.setColor(new Color(200, 60, 60));
-            g2d.fillRect(bx - 3, by + h - 6, w + 6, 6);
-            g2d.setColor(new Color(150, 40, 40));
-            g2d.drawRect(bx - 3, by + h - 6, w + 6, 6);
-
-            // Warning light
-            g2d.setColor(new Color(255, 50, 50, 180 + (int)(75 * Math.sin(System.currentTimeMillis() * 0.005))));
-            g2d.fillOval(bx + w / 2 - 4, by + h - 10, 8, 8);
-        } else {
-            // Top cap of bottom building
-            g2d.setColor(new Color(200, 60, 60));
-            g2d.fillRect(bx - 3, by, w + 6, 6);
-            g2d.setColor(new Color(150, 40, 40));
-            g2d.drawRect(bx - 3, by, w + 6, 6);
-
-            // Warning light
-            g2d.setColor(new Color(255, 50, 50, 180 + (int)(75 * Math.sin(System.currentTimeMillis() * 0.005))));
-            g2d.fillOval(bx + w / 2 - 4, by + 2, 8, 8);
+        g2d.setColor(OUTLINE);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            int h = height(k, gapYs[i], gapSizes[i]);
+            if (h > 0) g2d.drawRect(xs[i], top(k, gapYs[i], gapSizes[i]), WIDTH, h);
         }
+        g2d.setStroke(THIN);
+    }
 
-        // Outline
-        g2d.setColor(new Color(60, 65, 80));
-        g2d.setStroke(new BasicStroke(1.5f));
-        g2d.drawRect(bx, by, w, h);
+    // Even k is the top building of obstacle k / 2, odd k the bottom one
+    private static int top(int k, int gapY, int gapSize) {
+        return (k & 1) == 0 ? 0 : gapY + gapSize;
     }
 
-    public Rectangle getTopBounds() {
-        return new Rectangle(x - 1, 0, WIDTH + 2, gapY);
+    private static int height(int k, int gapY, int gapSize) {
+        return (k & 1) == 0 ? gapY : GROUND_TOP - gapY - gapSize;
     }
 
-    public Rectangle getBottomBounds() {
-        int bottomY = gapY + GAP_SIZE;
-        return new Rectangle(x - 1, bottomY, WIDTH + 2, screenHeight - bottomY);
+    private static int capY(int k, int gapY, int gapSize) {
+        return (k & 1) == 0 ? gapY - 6 : gapY + gapSize;
     }
 
-    public int getX() { return x; }
-    public int getWidth() { return WIDTH; }
-    public boolean isScored() { return scored; }
-    public void setScored(boolean scored) { this.scored = scored; }
-    public boolean isOffScreen() { return x + WIDTH < 0; }
+    // pass 0 fills the lit windows, 1 the dark ones, 2 draws every frame
+    private static void drawWindows(Graphics2D g2d, int[] xs, int[] gapYs, int[] gapSizes,
+                                    int[] visible, int count, Color color, int pass) {
+        g2d.setColor(color);
+        for (int k = 0; k < count * 2; k++) {
+            int i = visible[k >> 1];
+            int bx = xs[i];
+            int by = top(k, gapYs[i], gapSizes[i]);
+            int h = height(k, gapYs[i], gapSizes[i]);
+            if (h <= 0) continue;
+            int startY = (k & 1) == 0 ? by + (h % 18) + 5 : by + 8;
+            int endY = by + h - 5;
+            for (int wy = startY; wy + WINDOW_H < endY; wy += 18) {
+                for (int wx = bx + 8; wx + WINDOW_W < bx + WIDTH - 10; wx += 14) {
+                    if (pass == 2) {
+                        g2d.drawRect(wx, wy, WINDOW_W, WINDOW_H);
+                    } else if (((wx + wy) % 3 == 0) == (pass == 0)) {
+                        g2d.fillRect(wx, wy, WINDOW_W, WINDOW_H);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -16,6 +16,11 @@ public class Plane {
     private int targetY;
 
     public Plane(int startX, int startY) {
+        reset(startX, startY);
+    }
+
+    // Same state as a new Plane, so a restart can reuse the object
+    public void reset(int startX, int startY) {
         this.x = startX;
         this.y = startY;
         this.velocity = 0;
@@ -23,43 +28,83 @@ public class Plane {
         this.propellerAngle = 0;
         this.engineOn = false;
         this.mouseMode = false;
+        this.movingUp = false;
+        this.movingDown = false;
         this.targetY = startY;
     }
 
     public void update() {
         if (mouseMode) {
             double diff = targetY - y;
-            velocity = diff * 0.12;
-            velocity = Math.max(-MOVE_SPEED, Math.min(MOVE_SPEED, velocity));
+            velocity = mouseVelocity(y, targetY);
             y += velocity;
             engineOn = Math.abs(diff) > 3;
         } else {
-            if (movingUp) {
-                velocity -= MOVE_SPEED * 0.3;
-            } else if (movingDown) {
-                velocity += MOVE_SPEED * 0.3;
-            } else {
-                velocity *= FRICTION;
-            }
-            velocity = Math.max(-MOVE_SPEED, Math.min(MOVE_SPEED, velocity));
+            velocity = keyboardVelocity(velocity, movingUp, movingDown);
             y += velocity;
             engineOn = movingUp || movingDown;
         }
 
-        // Smooth rotation based on velocity
-        double targetRotation = velocity * 4;
-        rotation += (targetRotation - rotation) * 0.15;
-        rotation = Math.max(-25, Math.min(25, rotation));
+        rotation = nextRotation(rotation, velocity);
 
         // Propeller animation
         propellerAngle += engineOn ? 30 : 15;
     }
 
+    // Physics steps shared with code that simulates planes without Plane objects
+    static double keyboardVelocity(double velocity, boolean up, boolean down) {
+        if (up) {
+            velocity -= MOVE_SPEED * 0.3;
+        } else if (down) {
+            velocity += MOVE_SPEED * 0.3;
+        } else {
+            velocity *= FRICTION;
+        }
+        return Math.max(-MOVE_SPEED, Math.min(MOVE_SPEED, velocity));
+    }
+
+    static double mouseVelocity(double y, int targetY) {
+        double velocity = (targetY - y) * 0.12;
+        return Math.max(-MOVE_SPEED, Math.min(MOVE_SPEED, velocity));
+    }
+
+    // Smooth rotation based on velocity
+    static double nextRotation(double rotation, double velocity) {
+        double targetRotation = velocity * 4;
+        rotation += (targetRotation - rotation) * 0.15;
+        return Math.max(-25, Math.min(25, rotation));
+    }
+
     public void setTargetY(int ty) { this.targetY = ty; }
     public void setMouseMode(boolean b) { this.mouseMode = b; }
+    public void setRotation(double rotation) { this.rotation = rotation; }
+    public double getRotation() { return rotation; }
+    public double getPropellerAngle() { return propellerAngle; }
+    public boolean isEngineOn() { return engineOn; }
+
+    // Places the plane as seen in a snapshot, without running physics
+    public void setPose(double y, double rotation, double propellerAngle, boolean engineOn) {
+        this.y = y;
+        this.rotation = rotation;
+        this.propellerAngle = propellerAngle;
+        this.engineOn = engineOn;
+    }
     public boolean isMouseMode() { return mouseMode; }
+    public int getTargetY() { return targetY; }
+
+    // Restores everything update() depends on, for rewinding
+    public void setState(double y, double velocity, double rotation, double propellerAngle,
+                         boolean engineOn, int targetY) {
+        setPose(y, rotation, propellerAngle, engineOn);
+        this.velocity = velocity;
+        this.targetY = targetY;
+    }
 
     public void draw(Graphics2D g2d) {
+        draw(g2d, 3);
+    }
+
+    public void draw(Graphics2D g2d, int exhaustPuffs) {
         AffineTransform old = g2d.getTransform();
         g2d.translate(x + WIDTH / 2.0, y + HEIGHT / 2.0);
         g2d.rotate(Math.toRadians(rotation));
@@ -67,9 +112,10 @@ public class Plane {
         // Exhaust particles when moving
         if (engineOn) {
             g2d.setColor(new Color(200, 200, 200, 80));
-            for (int i = 0; i < 3; i++) {
+            for (int i = 0; i < exhaustPuffs; i++) {
                 int ex = -WIDTH / 2 - 8 - i * 7;
-                int ey = (int)(Math.random() * 8 - 4);
+                // Jitter derived from the propeller so the same state always draws the same frame
+                int ey = (int) (propellerAngle * 7 + i * 13) % 9 - 4;
                 g2d.fillOval(ex, ey - 3, 8 + i * 2, 6 + i);
             }
         }
@@ -169,6 +215,7 @@ public class Plane {
     public void setMovingUp(boolean b) { movingUp = b; }
     public void setMovingDown(boolean b) { movingDown = b; }
     public double getY() { return y; }
+    public double getVelocity() { return velocity; }
     public void setY(double y) { this.y = y; }
     public double getX() { return x; }
     public int getPlaneWidth() { return WIDTH; }
@@ -0,0 +1,6 @@
+// A bot: given the current state of a game it returns the next tick's input, in the same
+// encoding GameWorld.update() takes (keyboard bits, or the mouse Y in mouse mode). The view is
+// a GameWorld or a BatchWorld lane.
+public interface Policy {
+    int decide(FlightView view);
+}
@@ -0,0 +1,71 @@
+import java.util.Arrays;
+
+// Chooses a RenderQuality tier from measured paint times. It averages a window of frames, steps
+// down as soon as the average goes over budget and steps up only after a long stretch well under
+// it. A step up that has to be undone quickly doubles the wait before that tier is tried again,
+// so a machine sitting right at a tier boundary settles instead of oscillating.
+public class QualityGovernor {
+    private static final int WINDOW = 30;
+    private static final double DOWN_MILLIS = 12.0; // most of a 16 ms frame
+    private static final double UP_MILLIS = 6.0;
+    private static final int UP_AFTER_FRAMES = 120; // ~2 s of headroom
+    private static final int MAX_UP_AFTER_FRAMES = 120 * 64;
+    private static final int PROVEN_FRAMES = 600; // a step up that lasts this long was right
+
+    private final long[] samples = new long[WINDOW];
+    private final int[] upAfter = new int[RenderQuality.TIERS.length];
+    private final boolean fixed;
+    private int filled;
+    private int next;
+    private long sum;
+    private int tier;
+    private int framesAtTier;
+    private boolean probing;
+    private double average;
+
+    // fixedTier >= 0 pins the tier (for testing); otherwise the governor starts at full quality
+    public QualityGovernor(int fixedTier) {
+        fixed = fixedTier >= 0;
+        tier = fixed ? Math.min(fixedTier, RenderQuality.TIERS.length - 1) : 0;
+        Arrays.fill(upAfter, UP_AFTER_FRAMES);
+    }
+
+    public void frameDone(long nanos) {
+        sum += nanos - samples[next];
+        samples[next] = nanos;
+        next = (next + 1) % WINDOW;
+        if (filled < WINDOW) filled++;
+        framesAtTier++;
+        if (filled < WINDOW) return;
+
+        average = sum / (double) WINDOW / 1e6;
+        if (fixed) return;
+        if (probing && framesAtTier >= PROVEN_FRAMES) probing = false;
+
+        if (average > DOWN_MILLIS && tier < RenderQuality.TIERS.length - 1) {
+            if (probing) upAfter[tier] = Math.min(upAfter[tier] * 2, MAX_UP_AFTER_FRAMES);
+            change(tier + 1, false);
+        } else if (average < UP_MILLIS && tier > 0 && framesAtTier >= upAfter[tier - 1]) {
+            change(tier - 1, true);
+        }
+    }
+
+    private void change(int newTier, boolean up) {
+        tier = newTier;
+        probing = up;
+        framesAtTier = 0;
+        // Judge the new tier on its own frames only
+        filled = 0;
+        next = 0;
+        sum = 0;
+        Arrays.fill(samples, 0);
+    }
+
+    public RenderQuality quality() {
+        return RenderQuality.TIERS[tier];
+    }
+
+    public double getAverageMillis() {
+        return average;
+    }
+}
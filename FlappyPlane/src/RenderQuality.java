@@ -0,0 +1,31 @@
+// What scene drawing is allowed to skip, from full quality down to the cheapest tier.
+// QualityGovernor picks the tier; offscreen renderers just use FULL.
+public class RenderQuality {
+    public static final RenderQuality[] TIERS = {
+        new RenderQuality(0, "ALTA", true, true, 1, 3, 1.0),
+        new RenderQuality(1, "MEDIA", false, true, 1, 3, 1.0),    // no antialiasing behind the obstacles
+        new RenderQuality(2, "BAIXA", false, false, 1, 3, 1.0),   // no building windows
+        new RenderQuality(3, "MINIMA", false, false, 2, 1, 1.0),  // half the clouds, one exhaust puff
+        new RenderQuality(4, "ECONOMIA", false, false, 2, 1, 0.5) // scene drawn at half resolution
+    };
+    public static final RenderQuality FULL = TIERS[0];
+
+    public final int tier;
+    public final String name;
+    public final boolean backgroundAntialias;
+    public final boolean buildingWindows;
+    public final int cloudStride;
+    public final int exhaustPuffs;
+    public final double sceneScale;
+
+    private RenderQuality(int tier, String name, boolean backgroundAntialias, boolean buildingWindows,
+                          int cloudStride, int exhaustPuffs, double sceneScale) {
+        this.tier = tier;
+        this.name = name;
+        this.backgroundAntialias = backgroundAntialias;
+        this.buildingWindows = buildingWindows;
+        this.cloudStride = cloudStride;
+        this.exhaustPuffs = exhaustPuffs;
+        this.sceneScale = sceneScale;
+    }
+}
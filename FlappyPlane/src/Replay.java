@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// A recorded run: seed, control mode, difficulty profile and the input of every playing tick.
+// Feeding the inputs back into GameWorld.update() reproduces the run exactly.
+public class Replay {
+    private static final int MAGIC = 0x46505250; // "FPRP"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 2 + 1 + 8 + 4 + 4;
+    private static final int MAX_PROFILE_NAME = 32;
+
+    private final long seed;
+    private final boolean mouseMode;
+    private final DifficultyProfile profile;
+    private int score;
+    private short[] inputs;
+    private int length;
+
+    public Replay(long seed, boolean mouseMode) {
+        this(seed, mouseMode, DifficultyProfile.DEFAULT);
+    }
+
+    public Replay(long seed, boolean mouseMode, DifficultyProfile profile) {
+        this.seed = seed;
+        this.mouseMode = mouseMode;
+        this.profile = profile;
+        this.inputs = new short[1024];
+    }
+
+    private Replay(long seed, boolean mouseMode, DifficultyProfile profile, int score, short[] inputs) {
+        this.seed = seed;
+        this.mouseMode = mouseMode;
+        this.profile = profile;
+        this.score = score;
+        this.inputs = inputs;
+        this.length = inputs.length;
+    }
+
+    public void record(int input) {
+        if (length == inputs.length) {
+            inputs = Arrays.copyOf(inputs, length * 2);
+        }
+        inputs[length++] = (short) input;
+    }
+
+    public void setScore(int score) { this.score = score; }
+
+    public long getSeed() { return seed; }
+    public boolean isMouseMode() { return mouseMode; }
+    public DifficultyProfile getProfile() { return profile; }
+    public int getScore() { return score; }
+    public int getLength() { return length; }
+    public int getInput(int tick) { return inputs[tick]; }
+
+    public void write(Path path) throws IOException {
+        byte[] name = profile.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_PROFILE_NAME) name = Arrays.copyOf(name, MAX_PROFILE_NAME);
+        int[] rules = profile.toArray();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + 2 + name.length + rules.length * 4 + length * 2)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC);
+        buf.putShort(VERSION);
+        buf.put((byte) (mouseMode ? 1 : 0));
+        buf.putLong(seed);
+        buf.putInt(score);
+        buf.putInt(length);
+        // The rules travel with the run, so editing a profile never breaks old replays
+        buf.put((byte) name.length);
+        buf.put(name);
+        buf.put((byte) rules.length);
+        for (int v : rules) buf.putInt(v);
+        for (int i = 0; i < length; i++) {
+            buf.putShort(inputs[i]);
+        }
+        buf.flip();
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Replay grande demais: " + path);
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+            buf.flip();
+            return read(buf);
+        }
+    }
+
+    // Parses one replay from buf, rejecting anything malformed or truncated
+    public static Replay read(ByteBuffer buf) throws IOException {
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < HEADER_SIZE) throw new IOException("Replay truncado (cabecalho)");
+        if (buf.getInt() != MAGIC) throw new IOException("Arquivo nao e um replay");
+        short version = buf.getShort();
+        if (version != 1 && version != VERSION) throw new IOException("Versao de replay nao suportada: " + version);
+        byte mode = buf.get();
+        if (mode != 0 && mode != 1) throw new IOException("Modo de controle invalido: " + mode);
+        long seed = buf.getLong();
+        int score = buf.getInt();
+        int length = buf.getInt();
+        if (score < 0 || length < 0) throw new IOException("Cabecalho de replay invalido");
+        DifficultyProfile profile = version == 1 ? DifficultyProfile.DEFAULT : readProfile(buf);
+        if (buf.remaining() != length * 2L) throw new IOException("Replay truncado: esperados " + length + " ticks");
+
+        short[] inputs = new short[length];
+        buf.asShortBuffer().get(inputs);
+        return new Replay(seed, mode == 1, profile, score, inputs);
+    }
+
+    private static DifficultyProfile readProfile(ByteBuffer buf) throws IOException {
+        if (buf.remaining() < 1) throw new IOException("Replay truncado (perfil)");
+        int nameLength = buf.get() & 0xFF;
+        if (nameLength > MAX_PROFILE_NAME || buf.remaining() < nameLength + 1) {
+            throw new IOException("Perfil de dificuldade invalido");
+        }
+        byte[] name = new byte[nameLength];
+        buf.get(name);
+        int count = buf.get() & 0xFF;
+        if (count != DifficultyProfile.valueCount() || buf.remaining() < count * 4) {
+            throw new IOException("Perfil de dificuldade invalido");
+        }
+        int[] rules = new int[count];
+        for (int i = 0; i < count; i++) rules[i] = buf.getInt();
+        try {
+            return DifficultyProfile.of(new String(name, StandardCharsets.UTF_8), rules);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Perfil de dificuldade invalido: " + e.getMessage());
+        }
+    }
+}
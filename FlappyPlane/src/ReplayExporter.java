@@ -0,0 +1,222 @@
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Re-simulates a recorded run headless and exports it as an animated GIF or a PNG sequence.
+// Frame ranges are rendered (and, where the format allows, encoded) by a pool of workers
+// through GamePanel's own painting code, then handed to a single writer strictly in order.
+//
+// Uso: java ReplayExporter <replay.fpr> <saida.gif | pasta> [passo] [threads]
+public class ReplayExporter {
+    private static final int CHUNK_FRAMES = 30;
+    private static final int TRAILING_TICKS = 90; // game over screen after the crash
+    private static final int TICK_MS = 16;
+
+    private final Replay replay;
+    private final int step;
+    private final int totalTicks;
+    private final boolean indexed;
+
+    // Each worker keeps its own panel and only ever moves it forward
+    private final ThreadLocal<Playback> playbacks = new ThreadLocal<>();
+
+    private static class Playback {
+        final GamePanel panel;
+        final BufferedImage canvas;
+        int tick;
+
+        Playback(Replay replay) {
+            panel = new GamePanel(replay);
+            canvas = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+    }
+
+    public ReplayExporter(Replay replay, int step, boolean indexed) {
+        this.replay = replay;
+        this.step = step;
+        this.indexed = indexed;
+        this.totalTicks = replay.getLength() + TRAILING_TICKS;
+    }
+
+    public int getFrameCount() {
+        return totalTicks / step + 1;
+    }
+
+    private <T> List<T> renderChunk(int firstFrame, int endFrame, FrameEncoder<T> encoder) throws IOException {
+        Playback pb = playbacks.get();
+        int firstTick = firstFrame * step;
+        if (pb == null || pb.tick > firstTick) {
+            pb = new Playback(replay);
+            playbacks.set(pb);
+        }
+
+        List<T> frames = new ArrayList<>(endFrame - firstFrame);
+        for (int f = firstFrame; f < endFrame; f++) {
+            int tick = f * step;
+            while (pb.tick < tick) {
+                pb.panel.replayTick(pb.tick < replay.getLength() ? replay.getInput(pb.tick) : 0);
+                pb.tick++;
+            }
+
+            Graphics2D g2d = pb.canvas.createGraphics();
+            pb.panel.paintFrame(g2d);
+            g2d.dispose();
+
+            BufferedImage out = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT,
+                    indexed ? BufferedImage.TYPE_BYTE_INDEXED : BufferedImage.TYPE_INT_RGB);
+            Graphics2D og = out.createGraphics();
+            og.drawImage(pb.canvas, 0, 0, null);
+            og.dispose();
+            frames.add(encoder.encode(out));
+        }
+        return frames;
+    }
+
+    // Runs on the render workers
+    public interface FrameEncoder<T> {
+        T encode(BufferedImage image) throws IOException;
+    }
+
+    // Runs on the calling thread, in frame order
+    public interface FrameSink<T> {
+        void accept(int frame, T data) throws IOException;
+    }
+
+    // Renders and encodes all frames on the given number of threads; sink sees them in order
+    public <T> void export(int threads, FrameEncoder<T> encoder, FrameSink<T> sink)
+            throws IOException, InterruptedException {
+        int frameCount = getFrameCount();
+        int maxInFlight = threads * 2;
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "replay-render");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            ArrayDeque<Future<List<T>>> pending = new ArrayDeque<>();
+            int nextFrame = 0;
+            int written = 0;
+            while (written < frameCount) {
+                while (nextFrame < frameCount && pending.size() < maxInFlight) {
+                    int from = nextFrame;
+                    int to = Math.min(frameCount, from + CHUNK_FRAMES);
+                    pending.add(pool.submit(() -> renderChunk(from, to, encoder)));
+                    nextFrame = to;
+                }
+                List<T> chunk;
+                try {
+                    chunk = pending.poll().get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Falha ao renderizar quadros", e.getCause());
+                }
+                for (T data : chunk) {
+                    sink.accept(written++, data);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void writeGif(ReplayExporter exporter, File file, int threads, int delayCs)
+            throws IOException, InterruptedException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            IIOMetadata[] meta = new IIOMetadata[1];
+            exporter.export(threads, img -> img, (frame, img) -> {
+                if (meta[0] == null) meta[0] = gifMetadata(writer, img, delayCs);
+                writer.writeToSequence(new IIOImage(img, null, meta[0]), null);
+            });
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static IIOMetadata gifMetadata(ImageWriter writer, BufferedImage img, int delayCs)
+            throws IOException {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        IIOMetadata meta = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(img), param);
+        String format = meta.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) meta.getAsTree(format);
+
+        IIOMetadataNode gce = new IIOMetadataNode("GraphicControlExtension");
+        gce.setAttribute("disposalMethod", "none");
+        gce.setAttribute("userInputFlag", "FALSE");
+        gce.setAttribute("transparentColorFlag", "FALSE");
+        gce.setAttribute("delayTime", String.valueOf(delayCs));
+        gce.setAttribute("transparentColorIndex", "0");
+        root.appendChild(gce);
+
+        // Loop forever
+        IIOMetadataNode apps = new IIOMetadataNode("ApplicationExtensions");
+        IIOMetadataNode app = new IIOMetadataNode("ApplicationExtension");
+        app.setAttribute("applicationID", "NETSCAPE");
+        app.setAttribute("authenticationCode", "2.0");
+        app.setUserObject(new byte[]{1, 0, 0});
+        apps.appendChild(app);
+        root.appendChild(apps);
+
+        meta.setFromTree(format, root);
+        return meta;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Uso: java ReplayExporter <replay.fpr> <saida.gif | pasta> [passo] [threads]");
+            System.exit(1);
+        }
+        System.setProperty("java.awt.headless", "true");
+
+        Replay replay = Replay.read(Paths.get(args[0]));
+        File output = new File(args[1]);
+        boolean gif = output.getName().toLowerCase().endsWith(".gif");
+        int step = args.length > 2 ? Integer.parseInt(args[2]) : (gif ? 2 : 1);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        if (step < 1 || threads < 1) {
+            throw new IllegalArgumentException("passo e threads devem ser >= 1");
+        }
+
+        ReplayExporter exporter = new ReplayExporter(replay, step, gif);
+        long start = System.nanoTime();
+        if (gif) {
+            writeGif(exporter, output, threads, Math.max(2, Math.round(step * TICK_MS / 10f)));
+        } else {
+            if (!output.isDirectory() && !output.mkdirs()) {
+                throw new IOException("Nao foi possivel criar a pasta " + output);
+            }
+            exporter.export(threads, img -> {
+                ByteArrayOutputStream png = new ByteArrayOutputStream(64 * 1024);
+                ImageIO.write(img, "png", png);
+                return png.toByteArray();
+            }, (frame, png) -> Files.write(new File(output, String.format("quadro_%06d.png", frame)).toPath(), png));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int frames = exporter.getFrameCount();
+        double realTime = exporter.totalTicks * TICK_MS / 1000.0;
+        System.out.printf("%d quadros exportados em %.2fs (%.0f quadros/s, %.1fx tempo real)%n",
+                frames, seconds, frames / seconds, realTime / seconds);
+    }
+}
@@ -0,0 +1,185 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Stream;
+
+// Checks submitted runs before their scores are posted. Every replay under a folder is read
+// through a FileChannel (small files into a buffer each worker reuses, large ones mapped) and
+// re-simulated headless with GameWorld, the same rules GamePanel plays by. A run passes when
+// the simulation crashes exactly on its last tick with the score the file claims. Damaged
+// files are reported and skipped; they never stop the batch.
+//
+// Uso: java ReplayVerifier [pasta] [threads] [perfil exigido]
+public class ReplayVerifier {
+    private static final int MAP_THRESHOLD = 256 * 1024; // below this a plain read is cheaper
+    private static final int QUEUE_PER_THREAD = 64;
+    private static final Path END = Paths.get("");
+
+    private final BlockingQueue<Path> queue;
+    private final DifficultyProfile required;
+    private final List<String> problems = Collections.synchronizedList(new ArrayList<>());
+
+    private ReplayVerifier(int threads, DifficultyProfile required) {
+        this.queue = new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD);
+        this.required = required;
+    }
+
+    // Totals of one worker, merged when all are done
+    private static class Tally {
+        long files;
+        long valid;
+        long mismatched;
+        long malformed;
+        long ticks;
+        long bytes;
+
+        void add(Tally o) {
+            files += o.files;
+            valid += o.valid;
+            mismatched += o.mismatched;
+            malformed += o.malformed;
+            ticks += o.ticks;
+            bytes += o.bytes;
+        }
+    }
+
+    private class Worker extends Thread {
+        final Tally tally = new Tally();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        Worker(int n) {
+            super("verify-" + n);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (Path p = queue.take(); p != END; p = queue.take()) {
+                    verify(p);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void verify(Path path) {
+            tally.files++;
+            Replay replay;
+            try {
+                replay = Replay.read(load(path));
+            } catch (IOException | RuntimeException e) {
+                // A file cut in the wrong place can also fail as a buffer underflow or the like
+                tally.malformed++;
+                problems.add("INVALIDO   " + path + ": " + (e instanceof IOException ? e.getMessage() : e));
+                return;
+            }
+            tally.ticks += replay.getLength();
+            String error;
+            try {
+                error = check(replay);
+            } catch (RuntimeException e) {
+                // Counted against this file only; the worker keeps draining the queue
+                error = "falha na simulacao: " + e;
+            }
+            if (error == null) {
+                tally.valid++;
+            } else {
+                tally.mismatched++;
+                problems.add("DIVERGENTE " + path + ": " + error);
+            }
+        }
+
+        private ByteBuffer load(Path path) throws IOException {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size > Integer.MAX_VALUE) throw new IOException("arquivo grande demais");
+                tally.bytes += size;
+                if (size >= MAP_THRESHOLD) {
+                    return ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+                if (buffer.capacity() < size) buffer = ByteBuffer.allocate((int) size);
+                buffer.clear().limit((int) size);
+                while (buffer.hasRemaining()) {
+                    if (ch.read(buffer) < 0) throw new IOException("arquivo encolheu durante a leitura");
+                }
+                return buffer.flip();
+            }
+        }
+    }
+
+    // Replays the inputs; null if the run is exactly what it claims to be
+    private String check(Replay replay) {
+        if (required != null && !required.sameRules(replay.getProfile())) {
+            return "regras de dificuldade diferentes de '" + required.getName() + "'";
+        }
+        GameWorld world = new GameWorld(replay.getSeed());
+        world.setProfile(replay.getProfile());
+        world.start(replay.getSeed(), replay.isMouseMode());
+        int length = replay.getLength();
+        for (int tick = 0; tick < length; tick++) {
+            if (world.update(replay.getInput(tick)) && tick != length - 1) {
+                return "colisao no tick " + tick + " mas o replay segue ate o tick " + (length - 1);
+            }
+        }
+        if (!world.isCrashed()) return "termina sem colisao";
+        if (world.getScore() != replay.getScore()) {
+            return "pontos declarados " + replay.getScore() + ", simulados " + world.getScore();
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "replays");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        if (threads < 1) throw new IllegalArgumentException("threads deve ser >= 1");
+        DifficultyProfile required = args.length > 2
+                ? DifficultyProfile.load(Paths.get(DifficultyProfile.DIR), args[2]) : null;
+        if (!Files.isDirectory(dir)) {
+            System.out.println("Pasta nao encontrada: " + dir);
+            System.exit(1);
+        }
+
+        ReplayVerifier verifier = new ReplayVerifier(threads, required);
+        Worker[] workers = new Worker[threads];
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = verifier.new Worker(i);
+            workers[i].start();
+        }
+        // The walk feeds the workers as it goes, so a huge folder never sits in memory
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".fpr"))::iterator) {
+                verifier.queue.put(p);
+            }
+        } finally {
+            for (int i = 0; i < threads; i++) verifier.queue.put(END);
+        }
+        Tally total = new Tally();
+        for (Worker w : workers) {
+            w.join();
+            total.add(w.tally);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<String> problems = new ArrayList<>(verifier.problems);
+        Collections.sort(problems);
+        for (String p : problems) System.out.println(p);
+        if (!problems.isEmpty()) System.out.println();
+
+        System.out.printf("%d replays: %d validos, %d divergentes, %d invalidos%n",
+                total.files, total.valid, total.mismatched, total.malformed);
+        System.out.printf("%.2fs com %d threads: %.0f replays/s, %.1f M ticks/s, %.1f MB/s%n",
+                seconds, threads, total.files / seconds, total.ticks / seconds / 1e6,
+                total.bytes / seconds / (1024 * 1024));
+        if (total.mismatched + total.malformed > 0) System.exit(2);
+    }
+}
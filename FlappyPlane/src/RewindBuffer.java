@@ -0,0 +1,75 @@
+// Ring of complete simulation states, one per tick, for rewinding practice runs. All storage
+// is allocated up front as two flat primitive arrays: saving a tick is a few dozen array
+// writes and never allocates, and restoring any kept tick is a direct index. A ghost fleet
+// racing the run is kept in the same slots, so a rewind never re-simulates the ghosts.
+public class RewindBuffer {
+    public static final int MAX_OBSTACLES = 32;
+    private static final int INTS = GameWorld.STATE_INTS + MAX_OBSTACLES * GameWorld.OBSTACLE_INTS;
+    private static final int DOUBLES = GameWorld.STATE_DOUBLES;
+
+    private final int capacity;
+    private final int[] ints;
+    private final double[] doubles;
+    private GhostFleet ghosts;
+    private double[] ghostState = new double[0];
+    private int ghostDoubles;
+    private int newest = -1;
+    private int size;
+
+    public RewindBuffer(int ticks) {
+        capacity = Math.max(1, ticks);
+        ints = new int[capacity * INTS];
+        doubles = new double[capacity * DOUBLES];
+    }
+
+    // Memory budget expressed as seconds of history
+    public static RewindBuffer forSeconds(double seconds) {
+        return new RewindBuffer((int) Math.ceil(seconds * 1000 / GameClock.TICK_MILLIS));
+    }
+
+    public void clear() {
+        newest = -1;
+        size = 0;
+    }
+
+    // Starts a new run whose ghosts (or null) are saved and restored with the world. Room for
+    // the largest fleet seen is allocated once and reused.
+    public void clear(GhostFleet fleet) {
+        clear();
+        ghosts = fleet;
+        ghostDoubles = fleet != null ? fleet.stateDoubles() : 0;
+        if (ghostState.length < capacity * ghostDoubles) ghostState = new double[capacity * ghostDoubles];
+    }
+
+    // Keeps the state the world is in now, dropping the oldest tick when full
+    public void save(GameWorld world) {
+        int slot = (newest + 1) % capacity;
+        if (!world.saveState(ints, slot * INTS, doubles, slot * DOUBLES, MAX_OBSTACLES)) {
+            clear(); // cannot represent this tick, so nothing before it can be reached either
+            return;
+        }
+        if (ghosts != null) ghosts.saveState(ghostState, slot * ghostDoubles);
+        newest = slot;
+        if (size < capacity) size++;
+    }
+
+    // Puts the world back ticks saves ago (the oldest kept one at most) and forgets everything
+    // newer. Returns how many ticks were undone, or -1 if there is nothing to go back to.
+    public int rewind(GameWorld world, int ticks) {
+        if (size == 0) return -1;
+        int back = Math.min(ticks, size - 1);
+        int slot = Math.floorMod(newest - back, capacity);
+        world.loadState(ints, slot * INTS, doubles, slot * DOUBLES);
+        if (ghosts != null) ghosts.loadState(ghostState, slot * ghostDoubles);
+        newest = slot;
+        size -= back;
+        return back;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return capacity; }
+
+    public long bytes() {
+        return (long) ints.length * 4 + (long) (doubles.length + ghostState.length) * 8;
+    }
+}
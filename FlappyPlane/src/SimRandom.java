@@ -0,0 +1,34 @@
+// The generator of java.util.Random with its 48-bit state exposed, so a simulation can be saved
+// and restored exactly. For the same seed it returns the same numbers as java.util.Random,
+// which keeps every recorded replay valid.
+public class SimRandom {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    public SimRandom(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    private int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    // Same algorithm as java.util.Random.nextInt(int)
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        int r = next(31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next(31)) { }
+        return r;
+    }
+
+    public long getState() { return state; }
+    public void setState(long state) { this.state = state & MASK; }
+}
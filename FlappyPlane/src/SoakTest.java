@@ -0,0 +1,204 @@
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+
+// Runs the real game for a long time without a window and watches for leaks. The main thread
+// plays a script through the key handlers (a practice run that dives into the ground, rewinds
+// and goes back to the menu, an autopilot demo, ghost, music and engine sound toggles), a
+// render thread paints frames offscreen, and audio goes to a silent device. Every sample
+// records the heap after a full GC, live threads, open files and GC pause time; at the end
+// each series fails if its last quarter stays above its first quarter.
+//
+// Uso: java -Dflappy.music=<arquivo.mp3 ou pasta> SoakTest [minutos] [segundos por amostra]
+public class SoakTest {
+    private static final long FRAME_MILLIS = 33;
+    private static final double HEAP_SLACK = 0.05; // plus 1 MB
+    private static final double GC_SLACK_MILLIS = 20;
+
+    private static class Sample {
+        double minutes;
+        double heapMb;
+        int threads;
+        long files; // -1 where the platform does not say
+        long gcMillis; // pause time since the previous sample
+    }
+
+    private static GamePanel panel;
+
+    public static void main(String[] args) throws Exception {
+        double minutes = args.length > 0 ? Double.parseDouble(args[0]) : 120;
+        int sampleSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+        if (System.getProperty("flappy.audio") == null) System.setProperty("flappy.audio", "null");
+
+        panel = new GamePanel();
+        long start = System.nanoTime();
+        long end = start + (long) (minutes * 60e9);
+
+        Thread render = new Thread(() -> {
+            BufferedImage image = new BufferedImage(GamePanel.WIDTH, GamePanel.HEIGHT, BufferedImage.TYPE_INT_RGB);
+            try {
+                while (true) {
+                    SwingUtilities.invokeAndWait(() -> {
+                        Graphics2D g = image.createGraphics();
+                        panel.paintFrame(g);
+                        g.dispose();
+                    });
+                    Thread.sleep(FRAME_MILLIS);
+                }
+            } catch (Exception e) {
+                // The process is ending
+            }
+        }, "soak-render");
+        render.setDaemon(true);
+        render.start();
+
+        List<Sample> samples = new ArrayList<>();
+        Thread sampler = new Thread(() -> {
+            long lastGc = gcMillis();
+            try {
+                while (true) {
+                    Thread.sleep(sampleSeconds * 1000L);
+                    Sample s = new Sample();
+                    long gc = gcMillis();
+                    s.gcMillis = gc - lastGc;
+                    System.gc();
+                    lastGc = gcMillis();
+                    s.minutes = (System.nanoTime() - start) / 60e9;
+                    s.heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024);
+                    s.threads = ManagementFactory.getThreadMXBean().getThreadCount();
+                    s.files = openFiles();
+                    synchronized (samples) {
+                        samples.add(s);
+                    }
+                    System.out.printf("%7.1f min  heap %7.2f MB  threads %3d  arquivos %s  gc %4d ms%n", s.minutes,
+                            s.heapMb, s.threads, s.files < 0 ? "n/d" : String.valueOf(s.files), s.gcMillis);
+                }
+            } catch (InterruptedException e) {
+                // Done
+            }
+        }, "soak-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+
+        // Practice mode keeps the script's runs out of the replays, record and leaderboard
+        key(KeyEvent.VK_ENTER);
+        key(KeyEvent.VK_P);
+        key(KeyEvent.VK_ESCAPE);
+        int cycles = 0;
+        while (System.nanoTime() < end) {
+            cycles++;
+            key(KeyEvent.VK_ENTER);
+            if (cycles % 2 == 0) key(KeyEvent.VK_G);
+            key(KeyEvent.VK_ENTER);
+            panel.keyPressed(event(KeyEvent.KEY_PRESSED, KeyEvent.VK_S));
+            Thread.sleep(4000);
+            key(KeyEvent.VK_R);
+            Thread.sleep(3000);
+            panel.keyReleased(event(KeyEvent.KEY_RELEASED, KeyEvent.VK_S));
+            key(KeyEvent.VK_ENTER);
+            Thread.sleep(500);
+
+            key(KeyEvent.VK_D);
+            Thread.sleep(8000);
+            key(KeyEvent.VK_X);
+            Thread.sleep(500);
+            key(KeyEvent.VK_M);
+            if (cycles % 3 == 0) key(KeyEvent.VK_E);
+        }
+        sampler.interrupt();
+        sampler.join();
+
+        List<Sample> list;
+        synchronized (samples) {
+            list = new ArrayList<>(samples);
+        }
+        System.out.printf("%n%d ciclos em %.1f min, %d amostras%n", cycles, (System.nanoTime() - start) / 60e9, list.size());
+        if (list.size() < 8) {
+            System.out.println("Amostras insuficientes para avaliar tendencia (minimo 8)");
+            System.exit(1);
+        }
+
+        int n = list.size();
+        double[] heap = new double[n], threads = new double[n], files = new double[n], gc = new double[n];
+        for (int i = 0; i < n; i++) {
+            Sample s = list.get(i);
+            heap[i] = s.heapMb;
+            threads[i] = s.threads;
+            files[i] = s.files;
+            gc[i] = s.gcMillis;
+        }
+        int failures = 0;
+        failures += report("heap apos GC", rising(heap, 1 + HEAP_SLACK * max(heap, 1, 1 + quarter(n))));
+        failures += report("threads vivas", rising(threads, 0));
+        if (files[0] >= 0) failures += report("arquivos abertos", rising(files, 0));
+        failures += report("pausas de GC", mean(gc, n - quarter(n), n) > 2 * mean(gc, 1, 1 + quarter(n)) + GC_SLACK_MILLIS);
+        System.exit(failures > 0 ? 2 : 0);
+    }
+
+    private static int report(String name, boolean rising) {
+        System.out.printf("  %-18s %s%n", name, rising ? "SUBINDO" : "estavel");
+        return rising ? 1 : 0;
+    }
+
+    // The first sample is warm-up; the last quarter must stay above the first by more than slack
+    private static boolean rising(double[] v, double slack) {
+        int q = quarter(v.length);
+        return min(v, v.length - q, v.length) > max(v, 1, 1 + q) + slack;
+    }
+
+    private static int quarter(int n) {
+        return Math.max(1, (n - 1) / 4);
+    }
+
+    private static double max(double[] v, int from, int to) {
+        double m = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) m = Math.max(m, v[i]);
+        return m;
+    }
+
+    private static double min(double[] v, int from, int to) {
+        double m = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) m = Math.min(m, v[i]);
+        return m;
+    }
+
+    private static double mean(double[] v, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) sum += v[i];
+        return sum / Math.max(1, to - from);
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long openFiles() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+            return ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+        }
+        return -1;
+    }
+
+    // Press and release, with a pause so the simulation thread handles it before the next one
+    private static void key(int code) throws InterruptedException {
+        panel.keyPressed(event(KeyEvent.KEY_PRESSED, code));
+        panel.keyReleased(event(KeyEvent.KEY_RELEASED, code));
+        Thread.sleep(200);
+    }
+
+    private static KeyEvent event(int id, int code) {
+        return new KeyEvent(panel, id, System.currentTimeMillis(), 0, code, KeyEvent.CHAR_UNDEFINED);
+    }
+}
@@ -0,0 +1,117 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.locks.LockSupport;
+
+// Publishes one WorldSnapshot per tick to viewers on localhost (see SpectatorViewer).
+// The game thread only fills a triple buffer; a dispatcher thread picks up the newest
+// snapshot and each client thread sends delta frames at its own pace, so a slow viewer
+// just skips ticks and never holds up the game.
+//
+// Quadro na rede: varint(tamanho) + varint(campos) + varint zigzag de cada diferenca.
+public class SpectatorFeed {
+    public static final int DEFAULT_PORT = 47800;
+
+    private final TripleBuffer<int[]> ticks = new TripleBuffer<>(WorldSnapshot::create);
+    private final ServerSocket server;
+    private final Thread dispatcher;
+
+    // Latest snapshot handed to client threads, guarded by this
+    private final int[] latest = WorldSnapshot.create();
+    private int latestUsed;
+    private long latestSeq;
+
+    public SpectatorFeed(int port) throws IOException {
+        server = new ServerSocket(port, 4, InetAddress.getLoopbackAddress());
+        dispatcher = daemon(this::dispatch, "spectator-dispatch");
+        daemon(this::acceptLoop, "spectator-accept");
+    }
+
+    // Game thread: copies the tick into the back buffer and wakes the dispatcher
+    public void publish(GameWorld world, int state) {
+        WorldSnapshot.capture(world, state, ticks.back());
+        ticks.publish();
+        LockSupport.unpark(dispatcher);
+    }
+
+    private void dispatch() {
+        while (!server.isClosed()) {
+            LockSupport.parkNanos(50_000_000L);
+            if (!ticks.update()) continue;
+            int[] front = ticks.front();
+            synchronized (this) {
+                System.arraycopy(front, 0, latest, 0, WorldSnapshot.SIZE);
+                latestUsed = WorldSnapshot.HEADER + front[WorldSnapshot.OBSTACLES] * WorldSnapshot.OBSTACLE_FIELDS;
+                latestSeq++;
+                notifyAll();
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                daemon(() -> serve(socket), "spectator-client");
+            } catch (IOException e) {
+                if (!server.isClosed()) System.err.println("Espectador: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        int[] prev = WorldSnapshot.create();
+        int[] cur = WorldSnapshot.create();
+        byte[] frame = new byte[5 * (WorldSnapshot.SIZE + 1)];
+        byte[] prefix = new byte[5];
+        long seenSeq = 0;
+        try (Socket s = socket; OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+            while (!server.isClosed()) {
+                int used;
+                synchronized (this) {
+                    while (latestSeq == seenSeq) wait();
+                    seenSeq = latestSeq;
+                    used = latestUsed;
+                    System.arraycopy(latest, 0, cur, 0, WorldSnapshot.SIZE);
+                }
+                // Fields past the obstacle count are zeroed so deltas stay small
+                for (int i = used; i < WorldSnapshot.SIZE; i++) cur[i] = 0;
+
+                int length = WorldSnapshot.encodeDelta(prev, cur, used, frame);
+                out.write(prefix, 0, WorldSnapshot.writeVarint(prefix, 0, length));
+                out.write(frame, 0, length);
+                out.flush();
+
+                int[] t = prev;
+                prev = cur;
+                cur = t;
+            }
+        } catch (IOException e) {
+            // Viewer went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+        synchronized (this) {
+            latestSeq++;
+            notifyAll();
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
@@ -0,0 +1,117 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+// Second-screen view of a running game, fed by SpectatorFeed over localhost.
+//
+// Uso: java SpectatorViewer [porta]
+public class SpectatorViewer extends JPanel {
+    private static final String[] STATE_NAMES = {"MENU", "ESCOLHENDO CONTROLE", "AO VIVO", "FIM DE JOGO"};
+    private static final int STATE_PLAYING = 2;
+
+    private final int port;
+    private final GameWorld world = new GameWorld(0);
+    private final GameClock clock = new GameClock();
+    private final TripleBuffer<int[]> frames = new TripleBuffer<>(WorldSnapshot::create);
+    private volatile boolean connected;
+    private int state;
+    private int score;
+
+    public SpectatorViewer(int port) {
+        this.port = port;
+        setPreferredSize(new Dimension(GameWorld.WIDTH, GameWorld.HEIGHT));
+
+        Thread reader = new Thread(this::readLoop, "spectator-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        new Timer(16, e -> {
+            if (frames.update()) {
+                int[] snap = frames.front();
+                WorldSnapshot.apply(snap, world);
+                state = snap[WorldSnapshot.STATE];
+                score = snap[WorldSnapshot.SCORE];
+            }
+            // The feed carries no time; animate with the viewer's own clock
+            for (int i = clock.advance(System.nanoTime()); i > 0; i--) {
+                world.updateScenery();
+            }
+            repaint();
+        }).start();
+    }
+
+    private void readLoop() {
+        int[] decoded = WorldSnapshot.create();
+        byte[] frame = new byte[5 * (WorldSnapshot.SIZE + 1)];
+        while (true) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                connected = true;
+                Arrays.fill(decoded, 0);
+                while (true) {
+                    int length = readVarint(in);
+                    if (length > frame.length) throw new IOException("Quadro grande demais: " + length);
+                    in.readFully(frame, 0, length);
+                    WorldSnapshot.decodeDelta(frame, length, decoded);
+                    System.arraycopy(decoded, 0, frames.back(), 0, WorldSnapshot.SIZE);
+                    frames.publish();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                connected = false;
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Varint invalido");
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        world.draw(g2d, clock);
+
+        g2d.setColor(new Color(0, 0, 0, 80));
+        g2d.fillRoundRect(10, 10, 200, 50, 10, 10);
+        g2d.setFont(new Font("Arial", Font.BOLD, 14));
+        g2d.setColor(state == STATE_PLAYING && connected ? new Color(255, 80, 60) : new Color(200, 200, 200));
+        String label = connected ? STATE_NAMES[Math.max(0, Math.min(state, STATE_NAMES.length - 1))] : "SEM SINAL";
+        g2d.drawString("\u25CF " + label, 20, 30);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        g2d.drawString("Distancia: " + score, 20, 52);
+    }
+
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : SpectatorFeed.DEFAULT_PORT;
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Flappy Plane - Espectador");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.setResizable(false);
+            frame.add(new SpectatorViewer(port));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+    }
+}
@@ -0,0 +1,385 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+// Local split screen for 2 to 4 players on one seeded course. As in GamePanel, one simulation
+// thread steps every player and hands a snapshot to the EDT through a TripleBuffer. The course
+// looks the same to everyone, since all planes fly at the same X, so each frame draws sky,
+// scenery, obstacles and ground once into an image and blits it into every viewport. Per
+// viewport there is only the player's own plane, the others as shared ghost sprites, and the
+// HUD. Players 1 to 3 use W/S, the arrows and I/K; player 4 uses the mouse.
+public class SplitScreenPanel extends JPanel implements KeyListener, MouseMotionListener {
+    public static final int WIDTH = GameWorld.WIDTH;
+    public static final int HEIGHT = GameWorld.HEIGHT;
+
+    private static final int[][] KEYS = {
+        {KeyEvent.VK_W, KeyEvent.VK_S}, {KeyEvent.VK_UP, KeyEvent.VK_DOWN}, {KeyEvent.VK_I, KeyEvent.VK_K}
+    };
+    private static final String[] CONTROLS = {"W / S", "SETAS", "I / K", "MOUSE"};
+    private static final Color[] COLORS = {
+        new Color(255, 90, 90), new Color(90, 170, 255), new Color(120, 230, 120), new Color(255, 210, 80)
+    };
+    private static final int RESTART_LOCK_TICKS = 31; // ~500 ms
+
+    private enum State { READY, PLAYING, OVER }
+
+    // Everything the painter needs from one tick
+    private static class RenderState {
+        final int[] world = WorldSnapshot.create();
+        final double[] y = new double[SplitScreenWorld.MAX_PLAYERS];
+        final double[] rotation = new double[SplitScreenWorld.MAX_PLAYERS];
+        final double[] propeller = new double[SplitScreenWorld.MAX_PLAYERS];
+        final boolean[] engine = new boolean[SplitScreenWorld.MAX_PLAYERS];
+        final boolean[] alive = new boolean[SplitScreenWorld.MAX_PLAYERS];
+        final int[] score = new int[SplitScreenWorld.MAX_PLAYERS];
+        final int[] place = new int[SplitScreenWorld.MAX_PLAYERS];
+        State state = State.READY;
+        long tick;
+    }
+
+    private final int players;
+    private final int columns;
+    private final int rows;
+    private final double scale;
+    private final int viewW;
+    private final int viewH;
+
+    // Simulation thread
+    private final SplitScreenWorld world;
+    private final GameClock clock = new GameClock();
+    private final ConcurrentLinkedQueue<Runnable> inputQueue = new ConcurrentLinkedQueue<>();
+    private final boolean[] up;
+    private final boolean[] down;
+    private final int[] input;
+    private final int[] place;
+    private final Random random = new Random();
+    private volatile int mouseY = HEIGHT / 2;
+    private State state = State.READY;
+    private long overTick;
+
+    // EDT
+    private final TripleBuffer<RenderState> frames = new TripleBuffer<>(RenderState::new);
+    private final GameWorld view = new GameWorld(0);
+    private final GameClock viewClock = new GameClock();
+    private final Plane[] viewPlanes;
+    private final int[] ghosts = new int[SplitScreenWorld.MAX_PLAYERS * 2];
+    private RenderState frame = new RenderState();
+    private long viewTick;
+    private BufferedImage scene;
+    private GraphicsConfiguration sceneConfig;
+    private boolean perfOverlay;
+    private long paintNanos;
+    private int paints;
+    private long statsStart = System.nanoTime();
+    private double paintMillis;
+    private int fps;
+
+    public SplitScreenPanel(int players) {
+        this.players = players;
+        columns = 2;
+        rows = players > 2 ? 2 : 1;
+        scale = players > 2 ? 0.6 : 1.0;
+        viewW = (int) Math.round(WIDTH * scale);
+        viewH = (int) Math.round(HEIGHT * scale);
+        setPreferredSize(new Dimension(viewW * columns, viewH * rows));
+        setBackground(new Color(15, 20, 35));
+        setFocusable(true);
+        addKeyListener(this);
+        addMouseMotionListener(this);
+
+        DifficultyProfile profile = DifficultyProfile.DEFAULT;
+        String name = System.getProperty("flappy.difficulty");
+        if (name != null) {
+            try {
+                profile = DifficultyProfile.load(Paths.get(DifficultyProfile.DIR), name);
+            } catch (IOException e) {
+                System.err.println("Perfil de dificuldade indisponivel: " + e.getMessage());
+            }
+        }
+        world = new SplitScreenWorld(players, profile);
+        if (players == SplitScreenWorld.MAX_PLAYERS) world.setMouseMode(players - 1, true);
+        world.start(random.nextLong());
+        up = new boolean[players];
+        down = new boolean[players];
+        input = new int[players];
+        place = new int[players];
+        viewPlanes = new Plane[players];
+        for (int p = 0; p < players; p++) viewPlanes[p] = new Plane(80, HEIGHT / 2 - 12);
+        publishFrame();
+
+        Thread simulation = new Thread(this::runSimulation, "split-simulation");
+        simulation.setDaemon(true);
+        simulation.start();
+    }
+
+    // ==================== SIMULATION THREAD ====================
+    private void runSimulation() {
+        long tickNanos = (long) (GameClock.TICK_MILLIS * 1_000_000);
+        long next = System.nanoTime();
+        while (true) {
+            Runnable event;
+            while ((event = inputQueue.poll()) != null) event.run();
+            int ticks = clock.advance(System.nanoTime());
+            for (int i = 0; i < ticks; i++) update();
+            if (ticks > 0) {
+                publishFrame();
+                repaint();
+            }
+
+            next += tickNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -tickNanos * 5) {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    private void update() {
+        world.getCourse().updateScenery();
+        if (state != State.PLAYING) {
+            if (state == State.READY) world.getCourse().scrollIdle();
+            return;
+        }
+        for (int p = 0; p < players; p++) {
+            input[p] = world.getPlane(p).isMouseMode() ? mouseY
+                    : (up[p] ? GameWorld.INPUT_UP : 0) | (down[p] ? GameWorld.INPUT_DOWN : 0);
+        }
+        int before = world.getFlying();
+        boolean over = world.update(input);
+        // Players who crash on the same tick share a place
+        if (world.getFlying() < before) {
+            int placeNow = world.getFlying() + 1;
+            for (int p = 0; p < players; p++) {
+                if (!world.isAlive(p) && place[p] == 0) place[p] = placeNow;
+            }
+        }
+        if (over) {
+            state = State.OVER;
+            overTick = clock.getTick();
+        }
+    }
+
+    private void start() {
+        world.start(random.nextLong());
+        java.util.Arrays.fill(place, 0);
+        java.util.Arrays.fill(up, false);
+        java.util.Arrays.fill(down, false);
+        state = State.PLAYING;
+    }
+
+    private void publishFrame() {
+        RenderState f = frames.back();
+        WorldSnapshot.capture(world.getCourse(), state.ordinal(), f.world);
+        for (int p = 0; p < players; p++) {
+            Plane plane = world.getPlane(p);
+            f.y[p] = plane.getY();
+            f.rotation[p] = plane.getRotation();
+            f.propeller[p] = plane.getPropellerAngle();
+            f.engine[p] = plane.isEngineOn();
+            f.alive[p] = world.isAlive(p);
+            f.score[p] = world.getScore(p);
+            f.place[p] = place[p];
+        }
+        f.state = state;
+        f.tick = clock.getTick();
+        frames.publish();
+    }
+
+    // ==================== DESENHO ====================
+    @Override
+    protected void paintComponent(Graphics g) {
+        long paintStart = System.nanoTime();
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        if (frames.update()) {
+            frame = frames.front();
+            // Clouds are scenery only, so the view animates its own
+            view.catchUpScenery(frame.tick - viewTick, true);
+            WorldSnapshot.apply(frame.world, view);
+            viewClock.set(frame.tick, 1);
+            viewTick = frame.tick;
+        }
+
+        // The course once, at the size and screen scale of one viewport
+        AffineTransform screen = g2d.getDeviceConfiguration().getDefaultTransform();
+        Graphics2D sg = beginScene(g2d, screen);
+        sg.scale(scale * screen.getScaleX(), scale * screen.getScaleY());
+        view.drawScene(sg, viewClock, RenderQuality.FULL);
+        sg.dispose();
+
+        for (int cell = 0; cell < columns * rows; cell++) {
+            int vx = (cell % columns) * viewW;
+            int vy = (cell / columns) * viewH;
+            Graphics2D vg = (Graphics2D) g2d.create(vx, vy, viewW, viewH);
+            if (cell < players) {
+                vg.drawImage(scene, 0, 0, viewW, viewH, null);
+                vg.scale(scale, scale);
+                drawViewport(vg, cell);
+            } else {
+                vg.scale(scale, scale);
+                drawLegend(vg);
+            }
+            vg.dispose();
+        }
+
+        // Dividers
+        g2d.setColor(new Color(10, 15, 25));
+        for (int c = 1; c < columns; c++) g2d.fillRect(c * viewW - 2, 0, 4, viewH * rows);
+        for (int r = 1; r < rows; r++) g2d.fillRect(0, r * viewH - 2, viewW * columns, 4);
+
+        countPaint(System.nanoTime() - paintStart);
+        if (perfOverlay) {
+            g2d.setFont(new Font("Monospaced", Font.PLAIN, 11));
+            g2d.setColor(new Color(0, 0, 0, 150));
+            g2d.fillRect(viewW - 95, 4, 190, 18);
+            g2d.setColor(new Color(120, 255, 120));
+            g2d.drawString(String.format("%d qps, %.2f ms/quadro", fps, paintMillis), viewW - 88, 17);
+        }
+    }
+
+    private Graphics2D beginScene(Graphics2D target, AffineTransform screen) {
+        GraphicsConfiguration gc = target.getDeviceConfiguration();
+        int w = (int) Math.ceil(viewW * screen.getScaleX());
+        int h = (int) Math.ceil(viewH * screen.getScaleY());
+        if (scene == null || gc != sceneConfig || scene.getWidth() != w || scene.getHeight() != h) {
+            if (scene != null) scene.flush();
+            scene = gc.createCompatibleImage(w, h);
+            sceneConfig = gc;
+        }
+        Graphics2D sg = scene.createGraphics();
+        sg.setRenderingHints(target.getRenderingHints());
+        return sg;
+    }
+
+    // One player's own plane, the other players as ghosts, and the HUD, in world coordinates
+    private void drawViewport(Graphics2D g2d, int p) {
+        int n = 0;
+        for (int o = 0; o < players; o++) {
+            if (o == p || !frame.alive[o]) continue;
+            ghosts[n * 2] = (int) frame.y[o];
+            ghosts[n * 2 + 1] = GhostFleet.sprite(frame.rotation[o]);
+            n++;
+        }
+        GhostFleet.draw(g2d, ghosts, n);
+
+        Plane plane = viewPlanes[p];
+        plane.setPose(frame.y[p], frame.rotation[p], frame.propeller[p], frame.engine[p]);
+        plane.draw(g2d);
+
+        // Player tag and score
+        g2d.setFont(new Font("Arial", Font.BOLD, 18));
+        g2d.setColor(new Color(0, 0, 0, 110));
+        g2d.fillRoundRect(8, 8, 150, 30, 10, 10);
+        g2d.setColor(COLORS[p]);
+        g2d.drawString("J" + (p + 1) + "  " + CONTROLS[p], 16, 30);
+
+        String s = String.valueOf(frame.score[p]);
+        g2d.setFont(new Font("Arial", Font.BOLD, 42));
+        FontMetrics fm = g2d.getFontMetrics();
+        int x = (WIDTH - fm.stringWidth(s)) / 2;
+        g2d.setColor(new Color(20, 40, 80));
+        g2d.drawString(s, x + 2, 52);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString(s, x, 50);
+
+        if (frame.state == State.READY) {
+            drawCentered(g2d, "ENTER para decolar", 22, new Color(255, 255, 100), HEIGHT / 2 + 80);
+        } else if (!frame.alive[p]) {
+            g2d.setColor(new Color(0, 0, 0, 120));
+            g2d.fillRect(0, 0, WIDTH, HEIGHT);
+            drawCentered(g2d, frame.place[p] + "o LUGAR", 40, COLORS[p], HEIGHT / 2 - 10);
+            drawCentered(g2d, frame.score[p] + " pontos", 22, Color.WHITE, HEIGHT / 2 + 30);
+            if (frame.state == State.OVER) {
+                drawCentered(g2d, "ENTER para outra corrida", 18, new Color(200, 220, 255), HEIGHT / 2 + 80);
+            }
+        }
+    }
+
+    // Fills the unused quarter with three players
+    private void drawLegend(Graphics2D g2d) {
+        drawCentered(g2d, "FLAPPY PLANE", 40, Color.WHITE, HEIGHT / 2 - 60);
+        for (int p = 0; p < players; p++) {
+            drawCentered(g2d, "J" + (p + 1) + ": " + CONTROLS[p], 22, COLORS[p], HEIGHT / 2 + p * 32);
+        }
+    }
+
+    private void drawCentered(Graphics2D g2d, String text, int size, Color color, int y) {
+        g2d.setFont(new Font("Arial", Font.BOLD, size));
+        g2d.setColor(color);
+        g2d.drawString(text, (WIDTH - g2d.getFontMetrics().stringWidth(text)) / 2, y);
+    }
+
+    private void countPaint(long nanos) {
+        paintNanos += nanos;
+        paints++;
+        long now = System.nanoTime();
+        if (now - statsStart < 1_000_000_000L) return;
+        fps = paints;
+        paintMillis = paintNanos / 1e6 / paints;
+        paints = 0;
+        paintNanos = 0;
+        statsStart = now;
+    }
+
+    void paintFrame(Graphics2D g2d) {
+        paintComponent(g2d);
+    }
+
+    // ==================== INPUT ====================
+    // Listeners run on the EDT and only queue the event for the simulation thread
+    @Override
+    public void keyPressed(KeyEvent e) {
+        int key = e.getKeyCode();
+        if (key == KeyEvent.VK_F3) {
+            perfOverlay = !perfOverlay;
+            return;
+        }
+        inputQueue.add(() -> handleKey(key, true));
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+        int key = e.getKeyCode();
+        inputQueue.add(() -> handleKey(key, false));
+    }
+
+    private void handleKey(int key, boolean pressed) {
+        if (pressed && (key == KeyEvent.VK_ENTER || key == KeyEvent.VK_SPACE)) {
+            if (state == State.READY || (state == State.OVER && clock.getTick() - overTick > RESTART_LOCK_TICKS)) {
+                start();
+            }
+            return;
+        }
+        for (int p = 0; p < Math.min(players, KEYS.length); p++) {
+            if (world.getPlane(p).isMouseMode()) continue;
+            if (key == KEYS[p][0]) up[p] = pressed;
+            if (key == KEYS[p][1]) down[p] = pressed;
+        }
+    }
+
+    @Override public void keyTyped(KeyEvent e) {}
+
+    // The mouse player's Y, measured in their own viewport
+    @Override
+    public void mouseMoved(MouseEvent e) {
+        int mouseCell = players - 1;
+        int vy = (mouseCell / columns) * viewH;
+        mouseY = (int) Math.max(0, Math.min(HEIGHT, (e.getY() - vy) / scale));
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        mouseMoved(e);
+    }
+}
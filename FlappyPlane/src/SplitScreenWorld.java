@@ -0,0 +1,78 @@
+// Two to four planes on one seeded course. The obstacles live in a single GameWorld that is
+// scrolled once per tick for everyone; each player only adds a Plane and a collision test.
+// All planes fly at the same X, so a player's score is the course score on the tick they crash.
+public class SplitScreenWorld {
+    public static final int MAX_PLAYERS = 4;
+    private static final int PLANE_X = 80;
+    private static final int PLANE_Y = GameWorld.HEIGHT / 2 - 12;
+
+    private final GameWorld course;
+    private final Plane[] planes;
+    private final boolean[] mouseMode;
+    private final boolean[] alive;
+    private final int[] score;
+    private final int[] crashCause;
+    private int flying;
+
+    public SplitScreenWorld(int players, DifficultyProfile profile) {
+        if (players < 2 || players > MAX_PLAYERS) throw new IllegalArgumentException("jogadores deve ser 2 a 4");
+        course = new GameWorld(0);
+        course.setProfile(profile);
+        planes = new Plane[players];
+        mouseMode = new boolean[players];
+        alive = new boolean[players];
+        score = new int[players];
+        crashCause = new int[players];
+        for (int p = 0; p < players; p++) planes[p] = new Plane(PLANE_X, PLANE_Y);
+    }
+
+    // Mouse players pass the mouse Y as their input, like GameWorld's mouse mode
+    public void setMouseMode(int player, boolean mouse) { mouseMode[player] = mouse; }
+
+    public void start(long seed) {
+        course.start(seed, false);
+        for (int p = 0; p < planes.length; p++) {
+            planes[p].reset(PLANE_X, PLANE_Y);
+            planes[p].setMouseMode(mouseMode[p]);
+            alive[p] = true;
+            score[p] = 0;
+            crashCause[p] = GameWorld.CRASH_NONE;
+        }
+        flying = planes.length;
+    }
+
+    // One tick with each player's input. Returns true once nobody is left flying.
+    public boolean update(int[] input) {
+        if (flying == 0) return true;
+        for (int p = 0; p < planes.length; p++) {
+            if (!alive[p]) continue;
+            Plane plane = planes[p];
+            if (mouseMode[p]) {
+                plane.setTargetY(input[p] - plane.getPlaneHeight() / 2);
+            } else {
+                plane.setMovingUp((input[p] & GameWorld.INPUT_UP) != 0);
+                plane.setMovingDown((input[p] & GameWorld.INPUT_DOWN) != 0);
+            }
+            plane.update();
+        }
+        course.advanceCourse();
+        for (int p = 0; p < planes.length; p++) {
+            if (!alive[p]) continue;
+            score[p] = course.getScore();
+            crashCause[p] = course.crashCause(planes[p]);
+            if (crashCause[p] != GameWorld.CRASH_NONE) {
+                alive[p] = false;
+                flying--;
+            }
+        }
+        return flying == 0;
+    }
+
+    public int getPlayers() { return planes.length; }
+    public GameWorld getCourse() { return course; }
+    public Plane getPlane(int player) { return planes[player]; }
+    public boolean isAlive(int player) { return alive[player]; }
+    public int getScore(int player) { return score[player]; }
+    public int getCrashCause(int player) { return crashCause[player]; }
+    public int getFlying() { return flying; }
+}
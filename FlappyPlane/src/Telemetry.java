@@ -0,0 +1,131 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+// Turns one GamePanel session into TelemetryLog records. It watches the world after every
+// tick instead of hooking into GameWorld, so the simulation stays the same with or without
+// it. Input, spawn, score and level records are written when they happen; position and tick
+// timing are sampled a few times a second.
+//
+// Campos a, b, c, d por tipo de registro:
+//   SESSION  modo (1 = mouse), treino (1 = sim), semente (baixo), semente (alto)
+//   SAMPLE   y, velocidade x256, maior update (ns), update medio (ns)
+//   INPUT    entrada nova
+//   SPAWN    x, topo da abertura, tamanho da abertura
+//   SCORE    pontos, velocidade
+//   LEVEL    velocidade nova, pontos
+//   REWIND   ticks desfeitos
+//   DEATH    causa (GameWorld.CRASH_*), y, topo da abertura mais proxima (-1 sem), velocidade
+//   END      pontos, ticks, voltas no tempo, velocidade
+public class Telemetry {
+    public static final int SESSION = 1;
+    public static final int SAMPLE = 2;
+    public static final int INPUT = 3;
+    public static final int SPAWN = 4;
+    public static final int SCORE = 5;
+    public static final int LEVEL = 6;
+    public static final int REWIND = 7;
+    public static final int DEATH = 8;
+    public static final int END = 9;
+    public static final int TYPES = 10;
+
+    public static final int SAMPLE_EVERY = 6; // 10 per second
+
+    private final TelemetryLog log;
+    private long session;
+    private boolean open;
+    private int tick;
+    private int lastInput;
+    private int lastScore;
+    private int lastSpeed;
+    private int lastSpawnX;
+    private int rewinds;
+    private long maxNanos;
+    private long sumNanos;
+
+    public Telemetry(TelemetryLog log) {
+        this.log = log;
+    }
+
+    public void begin(GameWorld world, boolean practice) {
+        session = ThreadLocalRandom.current().nextLong();
+        open = true;
+        tick = 0;
+        lastInput = Integer.MIN_VALUE;
+        lastScore = world.getScore();
+        lastSpeed = world.getObstacleSpeed();
+        lastSpawnX = Integer.MIN_VALUE;
+        rewinds = 0;
+        maxNanos = 0;
+        sumNanos = 0;
+        long seed = world.getSeed();
+        log.append(SESSION, 0, session, world.isMouseMode() ? 1 : 0, practice ? 1 : 0, (int) seed, (int) (seed >>> 32));
+    }
+
+    // After every playing tick, with how long GameWorld.update() took
+    public void tick(GameWorld world, int input, long updateNanos) {
+        if (!open) return;
+        tick++;
+        if (input != lastInput) {
+            log.append(INPUT, tick, session, input, 0, 0, 0);
+            lastInput = input;
+        }
+
+        // A new obstacle is the only one that can be further right than the previous last one
+        int count = world.getObstacleCount();
+        int lastX = count > 0 ? world.getObstacleX(count - 1) : Integer.MIN_VALUE;
+        if (count > 0 && lastX > lastSpawnX) {
+            log.append(SPAWN, tick, session, lastX, world.getObstacleGapY(count - 1), world.getObstacleGapSize(count - 1), 0);
+        }
+        lastSpawnX = lastX;
+
+        if (world.getScore() != lastScore) {
+            lastScore = world.getScore();
+            log.append(SCORE, tick, session, lastScore, world.getObstacleSpeed(), 0, 0);
+        }
+        if (world.getObstacleSpeed() != lastSpeed) {
+            lastSpeed = world.getObstacleSpeed();
+            log.append(LEVEL, tick, session, lastSpeed, lastScore, 0, 0);
+        }
+
+        maxNanos = Math.max(maxNanos, updateNanos);
+        sumNanos += updateNanos;
+        if (tick % SAMPLE_EVERY == 0) {
+            Plane plane = world.getPlane();
+            log.append(SAMPLE, tick, session, (int) plane.getY(), (int) Math.round(plane.getVelocity() * 256),
+                    (int) Math.min(maxNanos, Integer.MAX_VALUE), (int) (sumNanos / SAMPLE_EVERY));
+            maxNanos = 0;
+            sumNanos = 0;
+        }
+
+        if (world.isCrashed()) death(world);
+    }
+
+    private void death(GameWorld world) {
+        Plane plane = world.getPlane();
+        int gapY = -1;
+        for (int i = 0; i < world.getObstacleCount(); i++) {
+            if (world.getObstacleX(i) + world.getObstacleWidth() >= plane.getX()) {
+                gapY = world.getObstacleGapY(i);
+                break;
+            }
+        }
+        log.append(DEATH, tick, session, world.getCrashCause(), (int) plane.getY(), gapY, world.getObstacleSpeed());
+    }
+
+    // The world went back in time; the session clock keeps running
+    public void rewound(GameWorld world, int undone) {
+        if (!open) return;
+        rewinds++;
+        log.append(REWIND, tick, session, undone, 0, 0, 0);
+        lastScore = world.getScore();
+        lastSpeed = world.getObstacleSpeed();
+        int count = world.getObstacleCount();
+        lastSpawnX = count > 0 ? world.getObstacleX(count - 1) : Integer.MIN_VALUE;
+    }
+
+    // Closes the session; does nothing if none is open
+    public void end(GameWorld world) {
+        if (!open) return;
+        open = false;
+        log.append(END, tick, session, world.getScore(), tick, rewinds, world.getObstacleSpeed());
+    }
+}
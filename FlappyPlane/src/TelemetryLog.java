@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Append-only log of fixed-size records in memory-mapped segment files. The game thread only
+// copies a record into a preallocated single-producer/single-consumer ring and never waits:
+// if the writer ever falls a whole ring behind, new records are dropped and counted. A daemon
+// thread drains the ring into the mapped segment. A segment file starts small and is remapped
+// at twice the size each time it fills, up to SEGMENT_BYTES, before a new file is started, so
+// a short session leaves a small file; close() also trims the last file to what was written
+// where the OS allows it (Windows refuses to shrink a file that is still mapped).
+//
+// Segmento: cabecalho de 16 bytes (magic, versao, bytes por registro, 0) e registros
+// little-endian de 32 bytes: tipo, tick, sessao (long), a, b, c, d. Tipo 0 marca o fim.
+public class TelemetryLog {
+    public static final int MAGIC = 0x4C545046; // "FPTL"
+    public static final int VERSION = 1;
+    public static final int HEADER = 16;
+    public static final int RECORD_BYTES = 32;
+    public static final String SUFFIX = ".tlm";
+
+    private static final int RECORD_INTS = RECORD_BYTES / 4;
+    private static final int RING_RECORDS = 1 << 13; // ~2 min of a run at the usual rate
+    private static final int FIRST_SEGMENT_BYTES = 64 << 10;
+    private static final int SEGMENT_BYTES = 8 << 20;
+    private static final long DRAIN_NANOS = 50_000_000L;
+
+    private final Path dir;
+    private final String prefix;
+    private final int[] ring = new int[RING_RECORDS * RECORD_INTS];
+    private final AtomicLong head = new AtomicLong(); // next record to drain
+    private final AtomicLong tail = new AtomicLong(); // next record to fill
+    private long knownHead; // producer's last look at head
+    private volatile long dropped;
+    private volatile boolean closed;
+    private final Thread writer;
+
+    // Writer thread only
+    private MappedByteBuffer segment;
+    private FileChannel channel; // of the current segment, kept open to grow and trim it
+    private int segmentCount;
+    private boolean failed;
+
+    private TelemetryLog(Path dir) {
+        this.dir = dir;
+        this.prefix = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + "-" + ProcessHandle.current().pid();
+        writer = new Thread(this::drainLoop, "telemetry-writer");
+        writer.setDaemon(true);
+    }
+
+    public static TelemetryLog open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        TelemetryLog log = new TelemetryLog(dir);
+        log.roll(); // fail here, not on the writer thread, if the folder is unusable
+        log.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(log::close));
+        return log;
+    }
+
+    // Game thread. Returns false if the record had to be dropped.
+    public boolean append(int type, int tick, long session, int a, int b, int c, int d) {
+        long t = tail.get();
+        if (t - knownHead >= RING_RECORDS) {
+            knownHead = head.getAcquire();
+            if (t - knownHead >= RING_RECORDS) {
+                dropped++;
+                return false;
+            }
+        }
+        int at = (int) (t & (RING_RECORDS - 1)) * RECORD_INTS;
+        ring[at] = type;
+        ring[at + 1] = tick;
+        ring[at + 2] = (int) session;
+        ring[at + 3] = (int) (session >>> 32);
+        ring[at + 4] = a;
+        ring[at + 5] = b;
+        ring[at + 6] = c;
+        ring[at + 7] = d;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    private void drainLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(DRAIN_NANOS);
+            drain();
+        }
+    }
+
+    private synchronized void drain() {
+        long h = head.get();
+        long t = tail.getAcquire();
+        for (; h < t; h++) {
+            if (!failed && segment != null) write((int) (h & (RING_RECORDS - 1)) * RECORD_INTS);
+        }
+        head.setRelease(h);
+    }
+
+    private void write(int at) {
+        try {
+            if (segment.remaining() < RECORD_BYTES) roll();
+        } catch (IOException e) {
+            System.err.println("Telemetria desligada: " + e.getMessage());
+            failed = true;
+            return;
+        }
+        int pos = segment.position();
+        for (int i = 1; i < RECORD_INTS; i++) segment.putInt(pos + i * 4, ring[at + i]);
+        // Type goes last, so a record cut short by a crash still reads as the end
+        segment.putInt(pos, ring[at]);
+        segment.position(pos + RECORD_BYTES);
+    }
+
+    private void roll() throws IOException {
+        if (segment != null && segment.capacity() < SEGMENT_BYTES) {
+            // Same file, mapped twice as large; the old mapping sees the same pages
+            int pos = segment.position();
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segment.capacity() * 2);
+            segment.order(ByteOrder.LITTLE_ENDIAN).position(pos);
+            return;
+        }
+        if (segment != null) finish();
+        Path file = dir.resolve(String.format("%s-%04d%s", prefix, segmentCount++, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, FIRST_SEGMENT_BYTES);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segment.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0);
+    }
+
+    // Flushes the current segment and cuts its file to the records written
+    private void finish() throws IOException {
+        segment.force();
+        try {
+            channel.truncate(segment.position());
+        } catch (IOException e) {
+            // Still mapped on Windows; the unwritten tail is zeros, which reads as the end
+        }
+        channel.close();
+    }
+
+    // Writes out whatever is still in the ring
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        drain();
+        synchronized (this) {
+            if (segment != null && !failed) {
+                try {
+                    finish();
+                } catch (IOException e) {
+                    System.err.println("Telemetria: " + e.getMessage());
+                }
+            }
+            segment = null; // the file may be shorter than the mapping now; no more writes
+        }
+        if (dropped > 0) System.err.println("Telemetria: " + dropped + " registros descartados");
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Reads every telemetry segment in a folder and sums up where and how runs end. Segments are
+// mapped and scanned in parallel, one partial tally per segment, so millions of sessions take
+// seconds. A segment with a bad header is skipped; a damaged record ends its segment.
+//
+// Uso: java TelemetryReport [pasta]
+public class TelemetryReport {
+    private static final int Y_BUCKET = 30;
+    private static final int Y_BUCKETS = GameWorld.HEIGHT / Y_BUCKET;
+    private static final int GAP_BUCKET = 20;
+    private static final int GAP_MIN = -100;
+    private static final int GAP_BUCKETS = 18; // -100 .. +260 from the top of the gap
+    private static final int MAX_SPEED = 64;
+    private static final int SCORE_BUCKET = 5;
+    private static final int SCORE_BUCKETS = 40;
+    private static final int NANO_BUCKETS = 32; // powers of two
+    private static final String[] CAUSES = {"", "chao", "teto", "predio de cima", "predio de baixo"};
+
+    private static class Tally {
+        long segments;
+        long skipped;
+        long bytes;
+        long[] records = new long[Telemetry.TYPES];
+        long practice;
+        long ticks;
+        long rewinds;
+        long[] causes = new long[CAUSES.length];
+        long[] deathY = new long[Y_BUCKETS];
+        long[] deathGap = new long[GAP_BUCKETS];
+        long[] deathSpeed = new long[MAX_SPEED];
+        long[] scores = new long[SCORE_BUCKETS];
+        long[] maxNanos = new long[NANO_BUCKETS];
+        long meanNanosSum;
+
+        void add(Tally o) {
+            segments += o.segments;
+            skipped += o.skipped;
+            bytes += o.bytes;
+            practice += o.practice;
+            ticks += o.ticks;
+            rewinds += o.rewinds;
+            meanNanosSum += o.meanNanosSum;
+            sum(records, o.records);
+            sum(causes, o.causes);
+            sum(deathY, o.deathY);
+            sum(deathGap, o.deathGap);
+            sum(deathSpeed, o.deathSpeed);
+            sum(scores, o.scores);
+            sum(maxNanos, o.maxNanos);
+        }
+
+        private static void sum(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+    }
+
+    private static Tally scan(Path file) {
+        Tally t = new Tally();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < TelemetryLog.HEADER || size > Integer.MAX_VALUE) {
+                t.skipped++;
+                return t;
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            if (buf.getInt(0) != TelemetryLog.MAGIC || buf.getInt(4) != TelemetryLog.VERSION
+                    || buf.getInt(8) != TelemetryLog.RECORD_BYTES) {
+                t.skipped++;
+                return t;
+            }
+            t.segments++;
+            int pos = TelemetryLog.HEADER;
+            for (; pos + TelemetryLog.RECORD_BYTES <= size; pos += TelemetryLog.RECORD_BYTES) {
+                int type = buf.getInt(pos);
+                if (type <= 0 || type >= Telemetry.TYPES) break;
+                t.records[type]++;
+                count(t, type, buf.getInt(pos + 16), buf.getInt(pos + 20), buf.getInt(pos + 24), buf.getInt(pos + 28));
+            }
+            t.bytes += pos;
+        } catch (IOException e) {
+            System.err.println(file + ": " + e.getMessage());
+            t.skipped++;
+        }
+        return t;
+    }
+
+    private static void count(Tally t, int type, int a, int b, int c, int d) {
+        switch (type) {
+            case Telemetry.SESSION:
+                if (b != 0) t.practice++;
+                break;
+            case Telemetry.SAMPLE:
+                t.maxNanos[Math.min(NANO_BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(Math.max(c, 0)))]++;
+                t.meanNanosSum += d;
+                break;
+            case Telemetry.DEATH:
+                if (a > 0 && a < CAUSES.length) t.causes[a]++;
+                t.deathY[clamp(b / Y_BUCKET, Y_BUCKETS)]++;
+                if (c >= 0) t.deathGap[clamp(Math.floorDiv(b - c - GAP_MIN, GAP_BUCKET), GAP_BUCKETS)]++;
+                t.deathSpeed[clamp(d, MAX_SPEED)]++;
+                break;
+            case Telemetry.END:
+                t.scores[clamp(a / SCORE_BUCKET, SCORE_BUCKETS)]++;
+                t.ticks += b;
+                t.rewinds += c;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static int clamp(int i, int n) {
+        return Math.max(0, Math.min(n - 1, i));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "telemetria");
+        if (!Files.isDirectory(dir)) {
+            System.out.println("Pasta nao encontrada: " + dir);
+            System.exit(1);
+        }
+        List<Path> files;
+        try (Stream<Path> s = Files.walk(dir)) {
+            files = s.filter(f -> f.toString().endsWith(TelemetryLog.SUFFIX)).collect(Collectors.toList());
+        }
+
+        long start = System.nanoTime();
+        Tally t = files.parallelStream().map(TelemetryReport::scan).reduce(new Tally(), (x, y) -> {
+            Tally sum = new Tally();
+            sum.add(x);
+            sum.add(y);
+            return sum;
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long records = 0;
+        for (long r : t.records) records += r;
+        long sessions = t.records[Telemetry.SESSION];
+        long ends = t.records[Telemetry.END];
+        long deaths = t.records[Telemetry.DEATH];
+        System.out.printf("%d segmentos (%d ignorados), %d registros em %.2fs: %.1f M registros/s, %.0f MB/s%n",
+                t.segments, t.skipped, records, seconds, records / seconds / 1e6, t.bytes / seconds / (1024 * 1024));
+        System.out.printf("%d sessoes (%d de treino, %d sem fim registrado), %d mortes, %d voltas no tempo%n",
+                sessions, t.practice, sessions - ends, deaths, t.rewinds);
+        if (ends > 0) {
+            double minutes = t.ticks * GameClock.TICK_MILLIS / 60_000.0;
+            System.out.printf("Duracao media %.1f s, %.0f comandos por minuto de jogo%n",
+                    t.ticks * GameClock.TICK_MILLIS / 1000.0 / ends, t.records[Telemetry.INPUT] / Math.max(minutes, 1e-9));
+        }
+        if (deaths == 0) return;
+
+        System.out.println("\nCausa da morte");
+        for (int i = 1; i < CAUSES.length; i++) {
+            System.out.printf("  %-16s %5.1f%%%n", CAUSES[i], 100.0 * t.causes[i] / deaths);
+        }
+
+        System.out.println("\nAltura do aviao ao morrer (y)");
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < Y_BUCKETS; i++) labels.add(String.format("%3d-%3d", i * Y_BUCKET, (i + 1) * Y_BUCKET - 1));
+        histogram(labels, t.deathY, deaths);
+
+        System.out.println("\nPosicao em relacao ao topo da abertura mais proxima (y - topo)");
+        labels.clear();
+        for (int i = 0; i < GAP_BUCKETS; i++) {
+            int from = GAP_MIN + i * GAP_BUCKET;
+            labels.add(String.format("%4d..%4d", from, from + GAP_BUCKET - 1));
+        }
+        histogram(labels, t.deathGap, deaths);
+
+        System.out.println("\nVelocidade ao morrer");
+        labels.clear();
+        for (int i = 0; i < MAX_SPEED; i++) labels.add(String.format("%2d", i));
+        histogram(labels, t.deathSpeed, deaths);
+
+        System.out.println("\nPontuacao final");
+        labels.clear();
+        for (int i = 0; i < SCORE_BUCKETS; i++) labels.add(String.format("%3d-%3d", i * SCORE_BUCKET, (i + 1) * SCORE_BUCKET - 1));
+        histogram(labels, t.scores, ends);
+
+        long samples = t.records[Telemetry.SAMPLE];
+        if (samples > 0) {
+            System.out.printf("%nTempo de GameWorld.update(): media %.0f ns; pior de cada %d ticks:%n",
+                    t.meanNanosSum / (double) samples, Telemetry.SAMPLE_EVERY);
+            labels.clear();
+            for (int i = 0; i < NANO_BUCKETS; i++) labels.add(String.format("< %,d ns", 1L << i));
+            histogram(labels, t.maxNanos, samples);
+        }
+    }
+
+    // Prints the non-empty rows with a bar scaled to the largest one
+    private static void histogram(List<String> labels, long[] counts, long total) {
+        long max = 1;
+        for (long c : counts) max = Math.max(max, c);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            System.out.printf("  %16s %5.1f%% %s%n", labels.get(i), 100.0 * counts[i] / total,
+                    "#".repeat((int) (40 * counts[i] / max)));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+// Flat int[] picture of what is on screen in one tick, plus the delta/varint codec used to
+// ship it to other processes. Fractional values are stored as fixed point (x256).
+public class WorldSnapshot {
+    public static final int STATE = 0;
+    public static final int SCORE = 1;
+    public static final int SPEED = 2;
+    public static final int PLANE_Y = 3;
+    public static final int ROTATION = 4;
+    public static final int PROPELLER = 5;
+    public static final int ENGINE = 6;
+    public static final int GROUND = 7;
+    public static final int MOUNTAIN = 8;
+    public static final int CITY = 9;
+    public static final int STRESS = 10;
+    public static final int OBSTACLES = 11;
+    public static final int HEADER = 12;
+
+    // Per obstacle: x, gap top, gap size. Only obstacles on screen are kept.
+    public static final int OBSTACLE_FIELDS = 3;
+    public static final int MAX_OBSTACLES = 32;
+    public static final int SIZE = HEADER + MAX_OBSTACLES * OBSTACLE_FIELDS;
+    private static final double FIXED = 256.0;
+
+    private WorldSnapshot() { }
+
+    public static int[] create() {
+        return new int[SIZE];
+    }
+
+    // Room for any number of obstacles, for views that draw stress runs
+    public static int[] create(int maxObstacles) {
+        return new int[HEADER + Math.max(maxObstacles, MAX_OBSTACLES) * OBSTACLE_FIELDS];
+    }
+
+    // Fills out with as many visible obstacles as fit. Returns the ints all visible obstacles
+    // need, which is more than out.length if some were left out.
+    public static int capture(GameWorld world, int state, int[] out) {
+        Plane plane = world.getPlane();
+        out[STATE] = state;
+        out[SCORE] = world.getScore();
+        out[SPEED] = world.getObstacleSpeed();
+        out[PLANE_Y] = (int) Math.round(plane.getY() * FIXED);
+        out[ROTATION] = (int) Math.round(plane.getRotation() * FIXED);
+        out[PROPELLER] = (int) (plane.getPropellerAngle() % 360);
+        out[ENGINE] = plane.isEngineOn() ? 1 : 0;
+        out[GROUND] = world.getGroundOffset();
+        out[MOUNTAIN] = (int) Math.round(world.getMountainOffset() * FIXED);
+        out[CITY] = (int) Math.round(world.getCityOffset() * FIXED);
+        out[STRESS] = world.getStress();
+
+        int capacity = (out.length - HEADER) / OBSTACLE_FIELDS;
+        int count = 0;
+        int visible = 0;
+        for (int i = 0; i < world.getObstacleCount(); i++) {
+            int x = world.getObstacleX(i);
+            if (!Obstacle.onScreen(x)) continue;
+            visible++;
+            if (count == capacity) continue;
+            int at = HEADER + count++ * OBSTACLE_FIELDS;
+            out[at] = x;
+            out[at + 1] = world.getObstacleGapY(i);
+            out[at + 2] = world.getObstacleGapSize(i);
+        }
+        out[OBSTACLES] = count;
+        return HEADER + visible * OBSTACLE_FIELDS;
+    }
+
+    public static void apply(int[] in, GameWorld world) {
+        world.getPlane().setPose(in[PLANE_Y] / FIXED, in[ROTATION] / FIXED, in[PROPELLER], in[ENGINE] != 0);
+        world.setView(in[SCORE], in[SPEED], in[GROUND], in[MOUNTAIN] / FIXED, in[CITY] / FIXED);
+        world.setPropRate(in[STRESS] / 10); // the view grows its own props, like its clouds
+        world.clearObstacles();
+        int count = Math.min(in[OBSTACLES], (in.length - HEADER) / OBSTACLE_FIELDS);
+        for (int i = 0; i < count; i++) {
+            int at = HEADER + i * OBSTACLE_FIELDS;
+            world.addObstacle(in[at], in[at + 1], in[at + 2]);
+        }
+    }
+
+    // Encodes cur as zigzag varint deltas against prev (both SIZE long). Returns bytes written;
+    // out needs at most 5 * (SIZE + 1) bytes.
+    public static int encodeDelta(int[] prev, int[] cur, int used, byte[] out) {
+        int pos = writeVarint(out, 0, used);
+        for (int i = 0; i < used; i++) {
+            int d = cur[i] - prev[i];
+            pos = writeVarint(out, pos, (d << 1) ^ (d >> 31));
+        }
+        return pos;
+    }
+
+    // Applies a delta frame onto prev in place, zeroing unused fields as the encoder does.
+    // Returns the number of ints used.
+    public static int decodeDelta(byte[] in, int length, int[] prev) {
+        int[] pos = {0};
+        int used = readVarint(in, length, pos);
+        if (used < HEADER || used > SIZE) throw new IllegalArgumentException("Quadro invalido");
+        for (int i = 0; i < used; i++) {
+            int z = readVarint(in, length, pos);
+            prev[i] += (z >>> 1) ^ -(z & 1);
+        }
+        for (int i = used; i < prev.length; i++) prev[i] = 0;
+        return used;
+    }
+
+    public static int writeVarint(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int readVarint(byte[] in, int length, int[] pos) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos[0] >= length) throw new IllegalArgumentException("Quadro truncado");
+            int b = in[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varint invalido");
+    }
+}
@@ -0,0 +1,6 @@
+@echo off
+cd /d "%~dp0"
+javac -cp lib/jlayer-1.0.1.jar -d out src/*.java
+javac --add-modules jdk.incubator.vector -cp out -d out src-vector/*.java
+java --add-modules jdk.incubator.vector -cp out;lib/jlayer-1.0.1.jar BatchBenchmark %*
+pause